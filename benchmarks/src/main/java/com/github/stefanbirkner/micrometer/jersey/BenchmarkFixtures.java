@@ -0,0 +1,125 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import com.palominolabs.jersey.dispatchwrapper.ResourceMethodDispatchWrapperChain;
+import com.sun.jersey.api.core.HttpContext;
+import com.sun.jersey.api.core.HttpResponseContext;
+import com.sun.jersey.api.model.AbstractResource;
+import com.sun.jersey.api.model.AbstractResourceMethod;
+import com.sun.jersey.api.model.AbstractSubResourceMethod;
+import com.sun.jersey.api.model.PathValue;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Objects that are shared by the benchmarks.
+ */
+final class BenchmarkFixtures {
+    static final ResourceMethodDispatchWrapperChain NO_OP_CHAIN
+        = (resource, context) -> {};
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Creates a {@code MeterRegistry}.
+     * @param type either "simple" for a {@link SimpleMeterRegistry} or
+     *             "noop" for a registry that does not record anything.
+     * @return the new registry.
+     */
+    static MeterRegistry registry(
+        String type
+    ) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        switch (type) {
+            case "simple":
+                return registry;
+            case "noop":
+                registry.config().meterFilter(MeterFilter.deny());
+                return registry;
+            default:
+                throw new IllegalArgumentException(
+                    "Unknown registry type: " + type
+                );
+        }
+    }
+
+    static HttpContext httpContextWithStatus(
+        int status
+    ) {
+        Integer boxedStatus = status;
+        HttpResponseContext response = proxy(
+            HttpResponseContext.class,
+            "getStatus",
+            boxedStatus
+        );
+        return proxy(HttpContext.class, "getResponse", response);
+    }
+
+    static List<AbstractResourceMethod> resourceMethods(
+        int count
+    ) {
+        Method method = getMethod();
+        List<AbstractResourceMethod> methods = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            AbstractResource resource = new AbstractResource(
+                Resource.class,
+                new PathValue("/resource-" + i)
+            );
+            methods.add(
+                new AbstractSubResourceMethod(
+                    resource,
+                    method,
+                    String.class,
+                    String.class,
+                    new PathValue("/method/{parameter}/"),
+                    "GET",
+                    new Annotation[0]
+                )
+            );
+        }
+        return methods;
+    }
+
+    private static Method getMethod() {
+        try {
+            return Resource.class.getMethod("get");
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static <T> T proxy(
+        Class<T> type,
+        String methodName,
+        Object returnValue
+    ) {
+        return type.cast(
+            Proxy.newProxyInstance(
+                BenchmarkFixtures.class.getClassLoader(),
+                new Class<?>[] { type },
+                (proxy, method, args) -> {
+                    if (method.getName().equals(methodName)) {
+                        return returnValue;
+                    } else {
+                        throw new UnsupportedOperationException(
+                            method.getName()
+                        );
+                    }
+                }
+            )
+        );
+    }
+
+    public static class Resource {
+        public String get() {
+            return "ok";
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+import com.palominolabs.jersey.dispatchwrapper.ResourceMethodDispatchWrapperFactory;
+import com.sun.jersey.api.model.AbstractResourceMethod;
+import com.sun.jersey.spi.container.ResourceMethodDispatchProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Set;
+
+import static com.github.stefanbirkner.micrometer.jersey.BenchmarkFixtures.registry;
+import static com.github.stefanbirkner.micrometer.jersey.BenchmarkFixtures.resourceMethods;
+import static com.google.inject.Guice.createInjector;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Cold start of the library: the time from a fresh JVM until the dispatch
+ * wrappers of 100 resource methods have been created, once with Guice and
+ * once with the {@link MicrometerDispatchAdapter}. Each fork measures a
+ * single invocation, so class loading and initialization are included.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+@State(Scope.Benchmark)
+public class BootstrapBenchmark {
+    private static final ResourceMethodDispatchProvider NO_OP_PROVIDER
+        = method -> (resource, context) -> {};
+    private static final Key<Set<ResourceMethodDispatchWrapperFactory>>
+        FACTORIES = Key.get(
+            new TypeLiteral<Set<ResourceMethodDispatchWrapperFactory>>() {}
+        );
+
+    private final List<AbstractResourceMethod> methods = resourceMethods(100);
+
+    @Benchmark
+    public void guice(
+        Blackhole blackhole
+    ) {
+        Injector injector = createInjector(
+            new ResourceMethodMicrometerModule(),
+            new RegistryModule(registry("simple"))
+        );
+        Set<ResourceMethodDispatchWrapperFactory> factories
+            = injector.getInstance(FACTORIES);
+        for (ResourceMethodDispatchWrapperFactory factory : factories) {
+            for (AbstractResourceMethod method : methods) {
+                blackhole.consume(factory.createDispatchWrapper(method));
+            }
+        }
+    }
+
+    @Benchmark
+    public void dispatchAdapter(
+        Blackhole blackhole
+    ) {
+        ResourceMethodDispatchProvider provider = new MicrometerDispatchAdapter(
+            registry("simple")
+        ).adapt(NO_OP_PROVIDER);
+        for (AbstractResourceMethod method : methods) {
+            blackhole.consume(provider.create(method));
+        }
+    }
+
+    private static final class RegistryModule extends AbstractModule {
+        private final MeterRegistry meterRegistry;
+
+        RegistryModule(
+            MeterRegistry meterRegistry
+        ) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        protected void configure() {
+            bind(MeterRegistry.class)
+                .annotatedWith(JerseyResourceMicrometer.class)
+                .toInstance(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import com.palominolabs.jersey.dispatchwrapper.ResourceMethodDispatchWrapper;
+import com.sun.jersey.api.model.AbstractResourceMethod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+
+import static com.github.stefanbirkner.micrometer.jersey.BenchmarkFixtures.registry;
+import static com.github.stefanbirkner.micrometer.jersey.BenchmarkFixtures.resourceMethods;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Startup cost of creating the dispatch wrappers for an application with
+ * many resource methods. Each invocation uses a new factory and a new
+ * registry like a freshly started application does.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(3)
+@State(Scope.Benchmark)
+public class CreateDispatchWrapperBenchmark {
+    @Param({"1000", "5000"})
+    public int numberOfMethods;
+
+    private List<AbstractResourceMethod> methods;
+    private MicrometerWrapperFactory factory;
+
+    @Setup(Level.Trial)
+    public void createMethods() {
+        methods = resourceMethods(numberOfMethods);
+    }
+
+    @Setup(Level.Invocation)
+    public void createFactory() {
+        factory = new MicrometerWrapperFactory(
+            new Configuration(),
+            registry("simple")
+        );
+    }
+
+    @Benchmark
+    public void createDispatchWrappers(
+        Blackhole blackhole
+    ) {
+        for (AbstractResourceMethod method: methods) {
+            ResourceMethodDispatchWrapper wrapper
+                = factory.createDispatchWrapper(method);
+            blackhole.consume(wrapper);
+        }
+    }
+}
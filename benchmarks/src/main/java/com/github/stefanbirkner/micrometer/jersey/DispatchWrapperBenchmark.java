@@ -0,0 +1,81 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import com.palominolabs.jersey.dispatchwrapper.ResourceMethodDispatchWrapper;
+import com.sun.jersey.api.core.HttpContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static com.github.stefanbirkner.micrometer.jersey.BenchmarkFixtures.NO_OP_CHAIN;
+import static com.github.stefanbirkner.micrometer.jersey.BenchmarkFixtures.httpContextWithStatus;
+import static com.github.stefanbirkner.micrometer.jersey.BenchmarkFixtures.registry;
+import static com.github.stefanbirkner.micrometer.jersey.BenchmarkFixtures.resourceMethods;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Overhead of a request that is dispatched through the wrapper compared to
+ * a request that is dispatched without it. The {@code Threads} variants show
+ * how the wrapper behaves when many threads record into the same timer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DispatchWrapperBenchmark {
+    @Param({"simple", "noop"})
+    public String registry;
+
+    private final Object resource = new BenchmarkFixtures.Resource();
+    private final HttpContext context = httpContextWithStatus(200);
+    private ResourceMethodDispatchWrapper wrapper;
+
+    @Setup
+    public void createWrapper() {
+        MeterRegistry meterRegistry = registry(registry);
+        MicrometerWrapperFactory factory = new MicrometerWrapperFactory(
+            new Configuration(),
+            meterRegistry
+        );
+        wrapper = factory.createDispatchWrapper(resourceMethods(1).get(0));
+    }
+
+    @Benchmark
+    public void unwrapped() {
+        NO_OP_CHAIN.wrapDispatch(resource, context);
+    }
+
+    @Benchmark
+    public void wrapped() {
+        wrapper.wrapDispatch(resource, context, NO_OP_CHAIN);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void wrapped_4_threads() {
+        wrapper.wrapDispatch(resource, context, NO_OP_CHAIN);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void wrapped_16_threads() {
+        wrapper.wrapDispatch(resource, context, NO_OP_CHAIN);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void wrapped_64_threads() {
+        wrapper.wrapDispatch(resource, context, NO_OP_CHAIN);
+    }
+}
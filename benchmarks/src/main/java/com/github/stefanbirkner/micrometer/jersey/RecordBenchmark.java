@@ -0,0 +1,118 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.function.Function;
+
+import static com.github.stefanbirkner.micrometer.jersey.BenchmarkFixtures.registry;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Cost of recording the duration of a single request, including the lookup
+ * of the status timer.
+ * <p>The {@code async} variant only measures the cost of enqueueing the
+ * request as long as the background thread keeps up. A tight loop enqueues
+ * faster than the background thread records, so the queue fills up and the
+ * remaining requests of the iteration are dropped. Therefore the benchmark
+ * reports the number of dropped requests as {@code dropped}. The score is
+ * only the cost of enqueueing if it is zero or small compared to the number
+ * of operations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecordBenchmark {
+    @Param({"simple", "noop"})
+    public String registry;
+
+    @Param({"sync", "async"})
+    public String recording;
+
+    private StatusTimers timers;
+    private AsyncRecorder asyncRecorder;
+
+    @Setup
+    public void createTimers() {
+        MeterRegistry meterRegistry = registry(registry);
+        Function<Tags, RequestTimer> registration
+            = DirectRequestTimer.registeredIn(
+                meterRegistry,
+                DistributionSettings.NONE
+            );
+        if (recording.equals("async")) {
+            asyncRecorder = new AsyncRecorder(
+                meterRegistry,
+                65_536
+            );
+            registration = registration.andThen(asyncRecorder::wrap);
+        }
+        timers = new StatusTimers(
+            Tags.of("method", "GET", "uri", "/resource"),
+            StatusTags.EXACT,
+            ExceptionTags.DISABLED,
+            registration
+        );
+    }
+
+    @TearDown
+    public void stopRecorder() {
+        if (asyncRecorder != null) {
+            asyncRecorder.close();
+        }
+    }
+
+    @Benchmark
+    public void record(
+        DroppedEvents droppedEvents
+    ) {
+        timers.forStatus(200).record(1_000);
+    }
+
+    private long droppedEvents() {
+        return asyncRecorder == null ? 0 : asyncRecorder.droppedEvents();
+    }
+
+    /**
+     * Reports the number of requests that have been dropped by the
+     * asynchronous recorder during an iteration.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class DroppedEvents {
+        public long dropped;
+        private long droppedBefore;
+
+        @Setup(Level.Iteration)
+        public void rememberDroppedEvents(
+            RecordBenchmark benchmark
+        ) {
+            dropped = 0;
+            droppedBefore = benchmark.droppedEvents();
+        }
+
+        @TearDown(Level.Iteration)
+        public void countDroppedEvents(
+            RecordBenchmark benchmark
+        ) {
+            dropped = benchmark.droppedEvents() - droppedBefore;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.github.stefanbirkner.micrometer.jersey.InstrumentationLevel.FULL;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * A {@link RequestTimer} whose detail is controlled by
+ * {@link AdaptiveShedding} and/or an {@link InstrumentationSwitch}.
+ * <p>Requests that are recorded at the level
+ * {@link InstrumentationLevel#FULL FULL} are recorded by the regular timer
+ * {@code http.server.requests}, like the requests of every other resource
+ * method. Micrometer fixes the histogram of a timer when it is registered,
+ * so requests with less detail cannot be recorded by this timer. They are
+ * published by the companion function timer
+ * {@code http.server.requests.reduced} with the same tags. Its count is
+ * exact. Its total time is extrapolated from the timed requests, because
+ * requests are not timed at the level
+ * {@link InstrumentationLevel#COUNTER COUNTER}. Each of the two meters is
+ * registered when it records its first request.
+ * <p>The shedding lowers the level for all resource methods and the switch
+ * for a single one. The lower of both levels applies. The probes of the
+ * shedding are recorded at the level of the switch. Resource methods
+ * whose tags are the same, e.g. because their {@code uri} has been
+ * replaced, share the {@link Meters} but each has its own switch.
+ */
+final class AdaptiveRequestTimer implements RequestTimer {
+    static final String REDUCED_NAME = StatusTimers.NAME + ".reduced";
+
+    private final Meters meters;
+    private final AdaptiveShedding shedding;
+    private final InstrumentationSwitch instrumentationSwitch;
+
+    /**
+     * Creates the timer.
+     * @param meters the meters that record the requests.
+     * @param shedding the adaptive shedding or {@code null} if it is not
+     *                 enabled.
+     * @param instrumentationSwitch the level of the resource method or
+     *                              {@code null} if it cannot be changed at
+     *                              runtime.
+     */
+    AdaptiveRequestTimer(
+        Meters meters,
+        AdaptiveShedding shedding,
+        InstrumentationSwitch instrumentationSwitch
+    ) {
+        this.meters = meters;
+        this.shedding = shedding;
+        this.instrumentationSwitch = instrumentationSwitch;
+    }
+
+    @Override
+    public void record(
+        long durationNanos
+    ) {
+        record(level(), durationNanos);
+    }
+
+    @Override
+    public void recordProbe(
+        long durationNanos
+    ) {
+        //Only the switch of the resource method applies to probes.
+        InstrumentationLevel level = instrumentationSwitch == null
+            ? FULL
+            : instrumentationSwitch.level();
+        record(level, durationNanos);
+    }
+
+    private void record(
+        InstrumentationLevel level,
+        long durationNanos
+    ) {
+        if (level == FULL) {
+            meters.timer().record(durationNanos, NANOSECONDS);
+        } else {
+            meters.recordReduced(durationNanos);
+        }
+    }
+
+    @Override
+    public void countUntimed() {
+        meters.countReduced();
+    }
+
+    private InstrumentationLevel level() {
+        InstrumentationLevel level = FULL;
+        if (shedding != null) {
+            level = shedding.level();
+        }
+        if (instrumentationSwitch != null) {
+            InstrumentationLevel switchLevel = instrumentationSwitch.level();
+            if (switchLevel.compareTo(level) < 0) {
+                level = switchLevel;
+            }
+        }
+        return level;
+    }
+
+    /**
+     * The timer {@code http.server.requests} and the function timer
+     * {@code http.server.requests.reduced} for a single set of tags. No
+     * meter is registered before it records a request.
+     */
+    static final class Meters {
+        private final MeterRegistry meterRegistry;
+        private final Tags tags;
+        private final DistributionSettings distributionSettings;
+        private final LongAdder reducedCount = new LongAdder();
+        private final LongAdder timedCount = new LongAdder();
+        private final LongAdder timedTotalNanos = new LongAdder();
+        //Registering a meter again returns the existing one. Therefore the
+        //meters are registered without synchronization.
+        private volatile Timer timer;
+        private volatile boolean reducedTimerRegistered;
+
+        /**
+         * Creates the meters without registering them.
+         * @param meterRegistry the registry of the meters.
+         * @param tags the tags of the meters.
+         * @param distributionSettings the settings of the histogram of
+         *                             {@code http.server.requests}.
+         */
+        Meters(
+            MeterRegistry meterRegistry,
+            Tags tags,
+            DistributionSettings distributionSettings
+        ) {
+            this.meterRegistry = meterRegistry;
+            this.tags = tags;
+            this.distributionSettings = distributionSettings;
+        }
+
+        Timer timer() {
+            Timer timer = this.timer;
+            if (timer == null) {
+                timer = distributionSettings.applyTo(
+                    Timer.builder(StatusTimers.NAME).tags(tags)
+                ).register(meterRegistry);
+                this.timer = timer;
+            }
+            return timer;
+        }
+
+        void recordReduced(
+            long durationNanos
+        ) {
+            reducedCount.increment();
+            timedCount.increment();
+            timedTotalNanos.add(durationNanos);
+            registerReducedTimer();
+        }
+
+        void countReduced() {
+            reducedCount.increment();
+            registerReducedTimer();
+        }
+
+        private void registerReducedTimer() {
+            if (!reducedTimerRegistered) {
+                FunctionTimer.builder(
+                        REDUCED_NAME,
+                        this,
+                        Meters::reducedCount,
+                        Meters::reducedTotalNanos,
+                        NANOSECONDS
+                    )
+                    .description("Requests that have been recorded without"
+                        + " histogram or without timing")
+                    .tags(tags)
+                    .register(meterRegistry);
+                reducedTimerRegistered = true;
+            }
+        }
+
+        private long reducedCount() {
+            return reducedCount.sum();
+        }
+
+        private double reducedTotalNanos() {
+            long timed = timedCount.sum();
+            if (timed == 0) {
+                return 0;
+            }
+            return timedTotalNanos.sum()
+                * ((double) reducedCount.sum() / timed);
+        }
+    }
+}
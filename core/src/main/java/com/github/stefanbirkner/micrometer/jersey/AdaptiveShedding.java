@@ -0,0 +1,120 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Decides how much detail is recorded for the requests of all resource
+ * methods. It monitors the cost of the instrumentation of a request and
+ * lowers the {@link InstrumentationLevel} by one step if the average cost
+ * exceeds the limit. It raises the level by one step when the average cost
+ * falls below half of the limit. The level is changed at most once per
+ * second.
+ * <p>The cost is the time that the {@link MicrometerDispatchWrapper} spends
+ * on a request apart from the resource method: resolving the endpoint,
+ * tracking it, reading the clock and recording it with all meters of the
+ * endpoint. It is the cost of the instrumentation only and not the latency
+ * of the request. The cost is measured in wall-clock time, so it does not
+ * only rise when the meters are expensive but also when the node is
+ * overloaded, because the request threads are preempted and contend on the
+ * meters and the caches.
+ * <p>The cost is measured for one in 64 requests only. These probes are
+ * always recorded in full detail, even if the level is lower, because
+ * otherwise the cost could not be observed after the level has been
+ * lowered.
+ */
+final class AdaptiveShedding {
+    private static final int PROBE_RATE = 64;
+    private static final long MIN_NANOS_BETWEEN_CHANGES = SECONDS.toNanos(1);
+
+    private final Clock clock;
+    private final long costLimitNanos;
+    private final AtomicLong lastChange;
+    private volatile InstrumentationLevel level = InstrumentationLevel.FULL;
+    private volatile long averageCostNanos = 0;
+
+    AdaptiveShedding(
+        Clock clock,
+        long costLimitNanos
+    ) {
+        this.clock = clock;
+        this.costLimitNanos = costLimitNanos;
+        this.lastChange = new AtomicLong(clock.monotonicTime());
+    }
+
+    void registerGauge(
+        MeterRegistry meterRegistry
+    ) {
+        Gauge.builder(
+                "jersey.micrometer.instrumentation.level",
+                this,
+                shedding -> shedding.level.value()
+            )
+            .description(
+                "Detail of the request metrics: 1 = counter, 2 = timer,"
+                    + " 3 = full"
+            )
+            .strongReference(true)
+            .register(meterRegistry);
+    }
+
+    InstrumentationLevel level() {
+        return level;
+    }
+
+    /**
+     * Decides whether the cost of the current request's instrumentation is
+     * measured.
+     * @return {@code true} iff the cost of the current request's
+     * instrumentation is measured.
+     */
+    boolean probe() {
+        return ThreadLocalRandom.current().nextInt(PROBE_RATE) == 0;
+    }
+
+    /**
+     * Adds the cost of a probe to the average cost and adjusts the level.
+     * @param costNanos the cost of the instrumentation of the probe.
+     */
+    void recordCost(
+        long costNanos
+    ) {
+        //The exponential moving average is updated without synchronization.
+        //An update that is lost because of a race does not matter for an
+        //estimate.
+        long average = averageCostNanos;
+        average += (costNanos - average) / 8;
+        averageCostNanos = average;
+        adjustLevel(average);
+    }
+
+    private void adjustLevel(
+        long averageCost
+    ) {
+        InstrumentationLevel current = level;
+        InstrumentationLevel next;
+        if (averageCost > costLimitNanos) {
+            next = current.lower();
+        } else if (averageCost < costLimitNanos / 2) {
+            next = current.higher();
+        } else {
+            return;
+        }
+        if (next == current) {
+            return;
+        }
+        long now = clock.monotonicTime();
+        long last = lastChange.get();
+        //Only the thread that wins the race changes the level.
+        if (now - last >= MIN_NANOS_BETWEEN_CHANGES
+            && lastChange.compareAndSet(last, now)) {
+            level = next;
+        }
+    }
+}
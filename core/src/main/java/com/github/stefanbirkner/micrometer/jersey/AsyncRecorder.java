@@ -0,0 +1,186 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Records requests on a background thread. The request threads only write
+ * a compact event into a {@link RecordingQueue}, so they never block on
+ * locks inside the {@link MeterRegistry}. A daemon thread drains the queue
+ * in batches and applies the events to the {@link RequestTimer
+ * RequestTimers}. Events that don't fit into the queue are dropped and
+ * counted by {@code jersey.micrometer.async.dropped}.
+ * <p>The thread sleeps longer and longer while the queue is empty, up to
+ * {@value #MAX_IDLE_MILLIS} ms, so that an idle application does not wake it
+ * up all the time. The thread is stopped by {@link #close()}.
+ */
+final class AsyncRecorder implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(
+        AsyncRecorder.class.getName()
+    );
+    private static final int BATCH_SIZE = 1024;
+    private static final long MIN_IDLE_NANOS = MILLISECONDS.toNanos(1);
+    private static final long MAX_IDLE_MILLIS = 16;
+    //marks requests that have not been timed
+    private static final long UNTIMED = -1;
+
+    private final RecordingQueue queue;
+    private final LongAdder dropped = new LongAdder();
+    private final Thread drainer;
+    //guarded by this
+    private final Map<RequestTimer, RequestTimer> wrappedTimers
+        = new IdentityHashMap<>();
+    private volatile RequestTimer[] timers = new RequestTimer[16];
+    private volatile boolean running = true;
+
+    AsyncRecorder(
+        MeterRegistry meterRegistry,
+        int capacity
+    ) {
+        this.queue = new RecordingQueue(capacity);
+        FunctionCounter.builder(
+                "jersey.micrometer.async.dropped",
+                dropped,
+                LongAdder::sum
+            )
+            .description("Requests that have not been recorded because the"
+                + " queue was full")
+            .register(meterRegistry);
+        drainer = new Thread(this::drain, "jersey-micrometer-recorder");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    /**
+     * Wraps a {@code RequestTimer} so that it is updated by the background
+     * thread. Wrapping the same timer again returns the same wrapper.
+     * @param timer the timer that is updated by the background thread.
+     * @return a timer that enqueues the requests.
+     */
+    synchronized RequestTimer wrap(
+        RequestTimer timer
+    ) {
+        RequestTimer wrapper = wrappedTimers.get(timer);
+        if (wrapper != null) {
+            return wrapper;
+        }
+        int index = wrappedTimers.size();
+        RequestTimer[] newTimers = timers;
+        if (index == newTimers.length) {
+            newTimers = Arrays.copyOf(newTimers, 2 * newTimers.length);
+        }
+        newTimers[index] = timer;
+        //The array is published before the index is used by any request
+        //thread, so the drainer always finds the timer.
+        timers = newTimers;
+        wrapper = new QueueingRequestTimer(index);
+        wrappedTimers.put(timer, wrapper);
+        return wrapper;
+    }
+
+    /**
+     * Returns the number of events that have been dropped because the queue
+     * was full. It is the value of {@code jersey.micrometer.async.dropped}
+     * but independent of the registry.
+     * @return the number of dropped events.
+     */
+    long droppedEvents() {
+        return dropped.sum();
+    }
+
+    /**
+     * Stops the background thread. The events that are already in the queue
+     * are recorded before. Events that are enqueued afterwards are not
+     * recorded anymore.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        RecordingQueue.EventConsumer apply = this::apply;
+        long idleNanos = MIN_IDLE_NANOS;
+        while (running) {
+            if (queue.drain(apply, BATCH_SIZE) == 0) {
+                LockSupport.parkNanos(this, idleNanos);
+                idleNanos = Math.min(
+                    2 * idleNanos,
+                    MILLISECONDS.toNanos(MAX_IDLE_MILLIS)
+                );
+            } else {
+                idleNanos = MIN_IDLE_NANOS;
+            }
+        }
+        while (queue.drain(apply, BATCH_SIZE) != 0) {
+            //record the remaining events
+        }
+    }
+
+    private void apply(
+        int index,
+        long durationNanos
+    ) {
+        //A failing meter or registry must not stop the thread. Otherwise
+        //no request would be recorded anymore.
+        try {
+            RequestTimer timer = timers[index];
+            if (durationNanos == UNTIMED) {
+                timer.countUntimed();
+            } else {
+                timer.record(durationNanos);
+            }
+        } catch (Throwable e) {
+            LOGGER.log(Level.WARNING, "Failed to record a request.", e);
+        }
+    }
+
+    private void enqueue(
+        int index,
+        long durationNanos
+    ) {
+        if (!queue.offer(index, durationNanos)) {
+            dropped.increment();
+        }
+    }
+
+    private final class QueueingRequestTimer implements RequestTimer {
+        private final int index;
+
+        QueueingRequestTimer(
+            int index
+        ) {
+            this.index = index;
+        }
+
+        @Override
+        public void record(
+            long durationNanos
+        ) {
+            //negative durations would be mistaken for untimed requests
+            enqueue(index, Math.max(0, durationNanos));
+        }
+
+        @Override
+        public void countUntimed() {
+            enqueue(index, UNTIMED);
+        }
+    }
+}
@@ -0,0 +1,931 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * {@code Configuration} for {@link MicrometerWrapperFactory}.
+ * <p>A {@code Configuration} is immutable. Each of the {@code with...} and
+ * {@code ...ByDefault} methods returns a new instance.
+ */
+public class Configuration {
+    private final boolean enabledByDefault;
+    private final boolean publishPercentileHistogram;
+    private final double[] percentiles;
+    private final Duration[] serviceLevelObjectives;
+    private final Duration minimumExpectedValue;
+    private final Duration maximumExpectedValue;
+    private final boolean taggedWithOutcome;
+    private final int[] exactStatusCodes;
+    private final boolean taggedWithException;
+    private final int maximumExceptionTagValues;
+    private final boolean eagerRegistration;
+    private final boolean activeRequestsTracked;
+    private final boolean payloadSizesRecorded;
+    private final int sampleRate;
+    private final Duration recordingCostLimit;
+    private final int asyncQueueCapacity;
+    private final boolean stripedTimers;
+    private final boolean asyncTiming;
+    private final boolean completeResponseTimed;
+    private final int maximumUris;
+    private final int maximumMeters;
+    private final boolean resourceUsageRecorded;
+    private final int slowRequestLogSize;
+    private final Duration slowRequestLogWindow;
+    private final double maximumSlaBreachRate;
+    private final Duration slaAlertWindow;
+    private final boolean runtimeControlled;
+
+    /**
+     * Creates a {@code Configuration} where by default monitoring is enabled
+     * for each resource method.
+     * @see Configuration#disabledByDefault()
+     */
+    public Configuration() {
+        this(new Builder());
+    }
+
+    private Configuration(
+        Builder builder
+    ) {
+        this.enabledByDefault = builder.enabledByDefault;
+        this.publishPercentileHistogram = builder.publishPercentileHistogram;
+        this.percentiles = builder.percentiles;
+        this.serviceLevelObjectives = builder.serviceLevelObjectives;
+        this.minimumExpectedValue = builder.minimumExpectedValue;
+        this.maximumExpectedValue = builder.maximumExpectedValue;
+        this.taggedWithOutcome = builder.taggedWithOutcome;
+        this.exactStatusCodes = builder.exactStatusCodes;
+        this.taggedWithException = builder.taggedWithException;
+        this.maximumExceptionTagValues = builder.maximumExceptionTagValues;
+        this.eagerRegistration = builder.eagerRegistration;
+        this.activeRequestsTracked = builder.activeRequestsTracked;
+        this.payloadSizesRecorded = builder.payloadSizesRecorded;
+        this.sampleRate = builder.sampleRate;
+        this.recordingCostLimit = builder.recordingCostLimit;
+        this.asyncQueueCapacity = builder.asyncQueueCapacity;
+        this.stripedTimers = builder.stripedTimers;
+        this.asyncTiming = builder.asyncTiming;
+        this.completeResponseTimed = builder.completeResponseTimed;
+        this.maximumUris = builder.maximumUris;
+        this.maximumMeters = builder.maximumMeters;
+        this.resourceUsageRecorded = builder.resourceUsageRecorded;
+        this.slowRequestLogSize = builder.slowRequestLogSize;
+        this.slowRequestLogWindow = builder.slowRequestLogWindow;
+        this.maximumSlaBreachRate = builder.maximumSlaBreachRate;
+        this.slaAlertWindow = builder.slaAlertWindow;
+        this.runtimeControlled = builder.runtimeControlled;
+    }
+
+    /**
+     * Returns {@code true} iff monitoring is enabled by default for each
+     * resource method.
+     * @return {@code true} iff monitoring is enabled by default for each
+     * resource method.
+     */
+    public boolean isEnabledByDefault() {
+        return enabledByDefault;
+    }
+
+    /**
+     * Creates a {@code Configuration} where by default monitoring is disabled
+     * for each resource method.
+     * @return a new {@code Configuration} instance.
+     * @see Configuration#Configuration()
+     */
+    public Configuration disabledByDefault() {
+        Builder builder = new Builder(this);
+        builder.enabledByDefault = false;
+        return new Configuration(builder);
+    }
+
+    /**
+     * Returns {@code true} iff the timers publish a percentile histogram.
+     * @return {@code true} iff the timers publish a percentile histogram.
+     */
+    public boolean isPublishPercentileHistogram() {
+        return publishPercentileHistogram;
+    }
+
+    /**
+     * Creates a {@code Configuration} where the timers publish a percentile
+     * histogram that can be used by monitoring systems like Prometheus to
+     * compute percentiles.
+     * @return a new {@code Configuration} instance.
+     * @see #withMinimumExpectedValue(Duration)
+     * @see #withMaximumExpectedValue(Duration)
+     */
+    public Configuration withPercentileHistogram() {
+        Builder builder = new Builder(this);
+        builder.publishPercentileHistogram = true;
+        return new Configuration(builder);
+    }
+
+    /**
+     * Returns the percentiles that are computed by the timers.
+     * @return the percentiles that are computed by the timers.
+     */
+    public double[] getPercentiles() {
+        return percentiles.clone();
+    }
+
+    /**
+     * Creates a {@code Configuration} where the timers compute the given
+     * percentiles, e.g. {@code 0.95} and {@code 0.99}.
+     * @param percentiles the percentiles.
+     * @return a new {@code Configuration} instance.
+     */
+    public Configuration withPercentiles(
+        double... percentiles
+    ) {
+        Builder builder = new Builder(this);
+        builder.percentiles = percentiles.clone();
+        return new Configuration(builder);
+    }
+
+    /**
+     * Returns the service level objectives that are published as histogram
+     * buckets by the timers.
+     * @return the service level objectives.
+     */
+    public Duration[] getServiceLevelObjectives() {
+        return serviceLevelObjectives.clone();
+    }
+
+    /**
+     * Creates a {@code Configuration} where the timers publish a histogram
+     * bucket for each of the given service level objectives.
+     * @param serviceLevelObjectives the service level objectives.
+     * @return a new {@code Configuration} instance.
+     */
+    public Configuration withServiceLevelObjectives(
+        Duration... serviceLevelObjectives
+    ) {
+        Builder builder = new Builder(this);
+        builder.serviceLevelObjectives = serviceLevelObjectives.clone();
+        return new Configuration(builder);
+    }
+
+    /**
+     * Returns the lower bound of the percentile histogram or {@code null} if
+     * Micrometer's default is used.
+     * @return the lower bound of the percentile histogram.
+     */
+    public Duration getMinimumExpectedValue() {
+        return minimumExpectedValue;
+    }
+
+    /**
+     * Creates a {@code Configuration} where the percentile histogram has no
+     * buckets below the given value.
+     * @param minimumExpectedValue the lower bound of the histogram.
+     * @return a new {@code Configuration} instance.
+     */
+    public Configuration withMinimumExpectedValue(
+        Duration minimumExpectedValue
+    ) {
+        Builder builder = new Builder(this);
+        builder.minimumExpectedValue = minimumExpectedValue;
+        return new Configuration(builder);
+    }
+
+    /**
+     * Returns the upper bound of the percentile histogram or {@code null} if
+     * Micrometer's default is used.
+     * @return the upper bound of the percentile histogram.
+     */
+    public Duration getMaximumExpectedValue() {
+        return maximumExpectedValue;
+    }
+
+    /**
+     * Creates a {@code Configuration} where the percentile histogram has no
+     * buckets above the given value.
+     * @param maximumExpectedValue the upper bound of the histogram.
+     * @return a new {@code Configuration} instance.
+     */
+    public Configuration withMaximumExpectedValue(
+        Duration maximumExpectedValue
+    ) {
+        Builder builder = new Builder(this);
+        builder.maximumExpectedValue = maximumExpectedValue;
+        return new Configuration(builder);
+    }
+
+    /**
+     * Returns {@code true} iff the timers have an {@code outcome} tag.
+     * @return {@code true} iff the timers have an {@code outcome} tag.
+     */
+    public boolean isTaggedWithOutcome() {
+        return taggedWithOutcome;
+    }
+
+    /**
+     * Creates a {@code Configuration} where the timers have an additional
+     * {@code outcome} tag with one of the values {@code INFORMATIONAL},
+     * {@code SUCCESS}, {@code REDIRECTION}, {@code CLIENT_ERROR},
+     * {@code SERVER_ERROR} and {@code UNKNOWN}. These are the same values
+     * like Spring Boot's.
+     * @return a new {@code Configuration} instance.
+     */
+    public Configuration withOutcomeTag() {
+        Builder builder = new Builder(this);
+        builder.taggedWithOutcome = true;
+        return new Configuration(builder);
+    }
+
+    /**
+     * Returns the status codes that are used as value of the {@code status}
+     * tag or {@code null} if every status code is used.
+     * @return the status codes that are used as value of the {@code status}
+     * tag.
+     */
+    public int[] getExactStatusCodes() {
+        return exactStatusCodes == null ? null : exactStatusCodes.clone();
+    }
+
+    /**
+     * Creates a {@code Configuration} where only the given status codes are
+     * used as value of the {@code status} tag. All other status codes are
+     * replaced by their class, e.g. {@code 4xx}. This limits the number of
+     * timers per resource method. If you don't specify any status code then
+     * the {@code status} tag only has the status classes.
+     * @param statusCodes the status codes that are used as tag value.
+     * @return a new {@code Configuration} instance.
+     */
+    public Configuration withExactStatusCodes(
+        int... statusCodes
+    ) {
+        Builder builder = new Builder(this);
+        builder.exactStatusCodes = statusCodes.clone();
+        return new Configuration(builder);
+    }
+
+    /**
+     * Returns {@code true} iff the timers have an {@code exception} tag.
+     * @return {@code true} iff the timers have an {@code exception} tag.
+     */
+    public boolean isTaggedWithException() {
+        return taggedWithException;
+    }
+
+    /**
+     * Returns the maximum number of different values of the
+     * {@code exception} tag.
+     * @return the maximum number of different values of the
+     * {@code exception} tag.
+     */
+    public int getMaximumExceptionTagValues() {
+        return maximumExceptionTagValues;
+    }
+
+    /**
+     * Creates a {@code Configuration} where the timers have an additional
+     * {@code exception} tag with the simple class name of the exception that
+     * has been thrown by the resource method or {@code None} if the method
+     * did not throw an exception. There are at most 50 different exception
+     * names. Further exceptions are tagged with {@code [other]}.
+     * @return a new {@code Configuration} instance.
+     * @see #withExceptionTag(int)
+     */
+    public Configuration withExceptionTag() {
+        return withExceptionTag(50);
+    }
+
+    /**
+     * Creates a {@code Configuration} where the timers have an additional
+     * {@code exception} tag with the simple class name of the exception that
+     * has been thrown by the resource method or {@code None} if the method
+     * did not throw an exception. Exceptions that are thrown after the
+     * maximum number of different exception names has been reached are
+     * tagged with {@code [other]}.
+     * @param maximumValues the maximum number of different exception names.
+     * @return a new {@code Configuration} instance.
+     * @throws IllegalArgumentException if the maximum is not positive.
+     */
+    public Configuration withExceptionTag(
+        int maximumValues
+    ) {
+        if (maximumValues < 1) {
+            throw new IllegalArgumentException(
+                "The maximum number " + maximumValues
+                    + " of exception names is not positive."
+            );
+        }
+        Builder builder = new Builder(this);
+        builder.taggedWithException = true;
+        builder.maximumExceptionTagValues = maximumValues;
+        return new Configuration(builder);
+    }
+
+    /**
+     * Returns {@code true} iff the timers are registered at startup.
+     * @return {@code true} iff the timers are registered at startup.
+     */
+    public boolean isEagerRegistration() {
+        return eagerRegistration;
+    }
+
+    /**
+     * Creates a {@code Configuration} where the timer for the status 200 of
+     * each resource method is registered at startup instead of being
+     * registered by the first request. The time that is needed for creating
+     * the timers is recorded by the timer {@code jersey.micrometer.init}.
+     * @return a new {@code Configuration} instance.
+     */
+    public Configuration withEagerRegistration() {
+        Builder builder = new Builder(this);
+        builder.eagerRegistration = true;
+        return new Configuration(builder);
+    }
+
+    /**
+     * Returns {@code true} iff the number of requests that are currently
+     * executed is tracked for each resource method.
+     * @return {@code true} iff the number of active requests is tracked.
+     */
+    public boolean isActiveRequestsTracked() {
+        return activeRequestsTracked;
+    }
+
+    /**
+     * Creates a {@code Configuration} where the number of requests that are
+     * currently executed by a resource method is published by the gauge
+     * {@code http.server.requests.active} with the tags {@code method} and
+     * {@code uri}.
+     * @return a new {@code Configuration} instance.
+     */
+    public Configuration withActiveRequests() {
+        Builder builder = new Builder(this);
+        builder.activeRequestsTracked = true;
+        return new Configuration(builder);
+    }
+
+    /**
+     * Returns {@code true} iff the sizes of the requests' and responses'
+     * entities are recorded.
+     * @return {@code true} iff the payload sizes are recorded.
+     */
+    public boolean isPayloadSizesRecorded() {
+        return payloadSizesRecorded;
+    }
+
+    /**
+     * Creates a {@code Configuration} where the sizes of the requests' and
+     * responses' entities are recorded by the distribution summaries
+     * {@code http.server.requests.size} and
+     * {@code http.server.responses.size}. They have the same tags like the
+     * timers except for the {@code exception} tag. The size of a request is
+     * taken from its {@code Content-Length} header. Requests without that
+     * header are not recorded.
+     * @return a new {@code Configuration} instance.
+     */
+    public Configuration withPayloadSizes() {
+        Builder builder = new Builder(this);
+        builder.payloadSizesRecorded = true;
+        return new Configuration(builder);
+    }
+
+    /**
+     * Returns the default sample rate. Only one in {@code sampleRate}
+     * requests is timed.
+     * @return the default sample rate.
+     */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Creates a {@code Configuration} where by default only one in
+     * {@code sampleRate} requests is timed. The requests are still published
+     * as {@code http.server.requests}, but by a function timer instead of a
+     * timer. Every request is counted, so its count is exact and its total
+     * time is the time of the timed requests multiplied with the sample
+     * rate. The durations of the timed requests are recorded by the
+     * companion timer {@code http.server.requests.sampled}, which provides
+     * the maximum, the percentiles and the histogram.
+     * <p>The sample rate of a resource method can be changed by
+     * {@link ResourceMetrics#sampleRate()}.
+     * @param sampleRate the sample rate. {@code 1} means that every request
+     *                   is timed.
+     * @return a new {@code Configuration} instance.
+     * @throws IllegalArgumentException if the sample rate is not positive.
+     */
+    public Configuration withSampleRate(
+        int sampleRate
+    ) {
+        if (sampleRate < 1) {
+            throw new IllegalArgumentException(
+                "The sample rate " + sampleRate + " is not positive."
+            );
+        }
+        Builder builder = new Builder(this);
+        builder.sampleRate = sampleRate;
+        return new Configuration(builder);
+    }
+
+    /**
+     * Returns the average cost of the instrumentation of a request above
+     * which the recorded detail is reduced or {@code null} if adaptive
+     * shedding is not enabled.
+     * @return the limit for the cost of the instrumentation of a request.
+     */
+    public Duration getRecordingCostLimit() {
+        return recordingCostLimit;
+    }
+
+    /**
+     * Creates a {@code Configuration} where the recorded detail is reduced
+     * when the node is overloaded. The cost of the instrumentation of a
+     * request is measured for a few requests. It is the wall-clock time that
+     * the library spends on the request before and after the resource
+     * method, not the latency of the request. It rises when the meters are
+     * expensive and when the CPUs are overloaded. If the average cost exceeds
+     * the limit then the requests are recorded with less detail: first
+     * without histograms and percentiles and then without timing. The detail
+     * is restored step by step when the cost falls below half of the limit.
+     * The current level is published by the gauge
+     * {@code jersey.micrometer.instrumentation.level} with the values
+     * {@code 3} (full), {@code 2} (timer) and {@code 1} (counter).
+     * <p>Requests that are recorded in full detail are published by the
+     * timer {@code http.server.requests} as usual. Requests with less detail
+     * are published by the companion function timer
+     * {@code http.server.requests.reduced} with the same tags, because the
+     * histogram of a timer cannot be switched off. Resource methods with a
+     * sample rate are not affected.
+     * @param recordingCostLimit the limit for the average cost of the
+     *                           instrumentation of a request.
+     * @return a new {@code Configuration} instance.
+     * @throws NullPointerException if the limit is {@code null}.
+     * @throws IllegalArgumentException if the limit is not positive.
+     * @see #withSampleRate(int)
+     */
+    public Configuration withAdaptiveShedding(
+        Duration recordingCostLimit
+    ) {
+        if (recordingCostLimit == null) {
+            throw new NullPointerException(
+                "The recording cost limit is null."
+            );
+        }
+        if (recordingCostLimit.isNegative() || recordingCostLimit.isZero()) {
+            throw new IllegalArgumentException(
+                "The recording cost limit " + recordingCostLimit
+                    + " is not positive."
+            );
+        }
+        Builder builder = new Builder(this);
+        builder.recordingCostLimit = recordingCostLimit;
+        return new Configuration(builder);
+    }
+
+    /**
+     * Returns the capacity of the queue for asynchronous recording or
+     * {@code 0} if requests are recorded by the request thread.
+     * @return the capacity of the queue for asynchronous recording.
+     */
+    public int getAsyncQueueCapacity() {
+        return asyncQueueCapacity;
+    }
+
+    /**
+     * Creates a {@code Configuration} where the timers are updated by a
+     * background thread instead of the request thread. The request thread
+     * only writes the duration into a lock-free queue and therefore never
+     * blocks on locks inside the {@code MeterRegistry}. Requests that don't
+     * fit into the queue are not recorded but counted by
+     * {@code jersey.micrometer.async.dropped}. The background thread sleeps
+     * up to 16 ms while the queue is empty, so the queue should hold the
+     * requests of at least this time. The thread is stopped when the
+     * {@code MicrometerDispatchAdapter} is closed.
+     * @param queueCapacity the capacity of the queue. It is rounded up to
+     *                      the next power of two.
+     * @return a new {@code Configuration} instance.
+     * @throws IllegalArgumentException if the capacity is not between
+     * {@code 1} and {@code 2^30}.
+     */
+    public Configuration withAsyncRecording(
+        int queueCapacity
+    ) {
+        if (queueCapacity < 1 || queueCapacity > 1 << 30) {
+            throw new IllegalArgumentException(
+                "The queue capacity " + queueCapacity
+                    + " is not between 1 and 2^30."
+            );
+        }
+        Builder builder = new Builder(this);
+        builder.asyncQueueCapacity = queueCapacity;
+        return new Configuration(builder);
+    }
+
+    /**
+     * Returns {@code true} iff the requests are recorded by striped
+     * histograms instead of Micrometer timers.
+     * @return {@code true} iff the requests are recorded by striped
+     * histograms.
+     */
+    public boolean isStripedTimers() {
+        return stripedTimers;
+    }
+
+    /**
+     * Creates a {@code Configuration} where the requests are recorded by
+     * histograms that are striped across threads instead of Micrometer
+     * timers. The stripes are merged when the registry publishes the
+     * meters, so concurrent requests don't contend on shared counters.
+     * <p>The count and the total time are published as
+     * {@code http.server.requests} by a function timer instead of a timer.
+     * The maximum is published by the companion time gauge
+     * {@code http.server.requests.striped.max} and the percentiles by the
+     * companion time gauge {@code http.server.requests.striped.percentile}.
+     * The maximum and the percentiles have a relative error of at most
+     * 12.5%. Percentile histograms and service level objectives are not
+     * published. Resource methods with a sample rate and adaptive shedding
+     * are not affected.
+     * <p>Each status of each resource method has its own histogram. A
+     * histogram starts with a single stripe of about 4 KB. Stripes are added
+     * when threads contend, up to the smallest power of two that is at least
+     * twice the number of processors.
+     * @return a new {@code Configuration} instance.
+     */
+    public Configuration withStripedTimers() {
+        Builder builder = new Builder(this);
+        builder.stripedTimers = true;
+        return new Configuration(builder);
+    }
+
+    /**
+     * Returns {@code true} iff requests are timed until their response is
+     * committed.
+     * @return {@code true} iff requests are timed until their response is
+     * committed.
+     */
+    public boolean isAsyncTiming() {
+        return asyncTiming;
+    }
+
+    /**
+     * Creates a {@code Configuration} where requests are timed until their
+     * response is committed instead of until the resource method returns.
+     * Use it for resources that complete their response asynchronously,
+     * e.g. by another thread. The start time of a request is stored in the
+     * writer of its response, so the timer is completed by the thread that
+     * writes the response. Requests whose resource method
+     * throws an exception are still recorded when the method returns.
+     * @return a new {@code Configuration} instance.
+     */
+    public Configuration withAsyncTiming() {
+        Builder builder = new Builder(this);
+        builder.asyncTiming = true;
+        return new Configuration(builder);
+    }
+
+    /**
+     * Returns {@code true} iff requests are timed until their response's
+     * entity has been written, too.
+     * @return {@code true} iff requests are timed until their response's
+     * entity has been written.
+     */
+    public boolean isCompleteResponseTimed() {
+        return completeResponseTimed;
+    }
+
+    /**
+     * Creates a {@code Configuration} where requests are additionally timed
+     * until their response's entity has been written by the
+     * {@code MessageBodyWriter}. These durations are recorded by the timer
+     * {@code http.server.requests.complete}. It has the same tags like
+     * {@code http.server.requests} except for the {@code exception} tag. The
+     * difference between both timers is the time that is needed for writing
+     * the entity. Sampled resource methods use the function timer
+     * {@code http.server.requests.complete.sampled} instead.
+     * @return a new {@code Configuration} instance.
+     */
+    public Configuration withCompleteResponseTimer() {
+        Builder builder = new Builder(this);
+        builder.completeResponseTimed = true;
+        return new Configuration(builder);
+    }
+
+    /**
+     * Returns the maximum number of different values of the tag
+     * {@code uri}.
+     * @return the maximum number of different values of the tag
+     * {@code uri}.
+     */
+    public int getMaximumUris() {
+        return maximumUris;
+    }
+
+    /**
+     * Creates a {@code Configuration} where the number of different values
+     * of the tag {@code uri} is limited. Further values are replaced by
+     * {@code OTHER} and counted by {@code jersey.micrometer.meters.rejected}.
+     * The limit is enforced by an {@link UriCardinalityFilter} that is
+     * applied to the meters of the resource methods before they are
+     * registered. It is not added to the {@code MeterRegistry}.
+     * @param maximumUris the maximum number of different values of the tag
+     *                    {@code uri}. {@code 0} means that every
+     *                    value is replaced.
+     * @return a new {@code Configuration} instance.
+     * @throws IllegalArgumentException if the maximum is negative.
+     */
+    public Configuration withMaximumUris(
+        int maximumUris
+    ) {
+        if (maximumUris < 0) {
+            throw new IllegalArgumentException(
+                "The maximum number " + maximumUris + " of uris is negative."
+            );
+        }
+        Builder builder = new Builder(this);
+        builder.maximumUris = maximumUris;
+        return new Configuration(builder);
+    }
+
+    /**
+     * Returns the maximum number of meters for HTTP requests.
+     * @return the maximum number of meters for HTTP requests.
+     */
+    public int getMaximumMeters() {
+        return maximumMeters;
+    }
+
+    /**
+     * Creates a {@code Configuration} where the number of meters for HTTP
+     * requests is limited. Further meters are not registered, so they don't
+     * record anything, and are counted by
+     * {@code jersey.micrometer.meters.rejected}. A timer and its companion
+     * meters count as a single meter. The limit is enforced by an
+     * {@link UriCardinalityFilter} that is applied to the meters of the
+     * resource methods before they are registered. It is not added to the
+     * {@code MeterRegistry}, so meters of other libraries are not
+     * affected.
+     * @param maximumMeters the maximum number of meters.
+     * @return a new {@code Configuration} instance.
+     * @throws IllegalArgumentException if the maximum is negative.
+     */
+    public Configuration withMaximumMeters(
+        int maximumMeters
+    ) {
+        if (maximumMeters < 0) {
+            throw new IllegalArgumentException(
+                "The maximum number " + maximumMeters
+                    + " of meters is negative."
+            );
+        }
+        Builder builder = new Builder(this);
+        builder.maximumMeters = maximumMeters;
+        return new Configuration(builder);
+    }
+
+    /**
+     * Returns {@code true} iff the CPU time and the allocated memory of the
+     * resource methods' invocations are recorded.
+     * @return {@code true} iff the resource usage is recorded.
+     */
+    public boolean isResourceUsageRecorded() {
+        return resourceUsageRecorded;
+    }
+
+    /**
+     * Creates a {@code Configuration} where the CPU time and the memory that
+     * is allocated by the thread that invokes a resource method are recorded
+     * by the timer {@code http.server.requests.cpu} and the distribution
+     * summary {@code http.server.requests.allocated}. They have the same
+     * tags like the timers except for the {@code exception} tag. Values that
+     * are not supported by the JVM's {@code ThreadMXBean} are not recorded.
+     * <p>The measurements are enabled by default. They are settings of the
+     * whole JVM, so they are not changed by this library. Values whose
+     * measurement has been disabled by
+     * {@code ThreadMXBean.setThreadCpuTimeEnabled(false)} or
+     * {@code setThreadAllocatedMemoryEnabled(false)} are not recorded.
+     * <p>Reading the values costs a few hundred nanoseconds per request.
+     * @return a new {@code Configuration} instance.
+     * @see ResourceMetrics#resourceUsage()
+     */
+    public Configuration withResourceUsage() {
+        Builder builder = new Builder(this);
+        builder.resourceUsageRecorded = true;
+        return new Configuration(builder);
+    }
+
+    /**
+     * Returns the number of slow requests that are captured per resource
+     * method or {@code 0} if the slow request log is disabled.
+     * @return the number of slow requests that are captured per resource
+     * method.
+     */
+    public int getSlowRequestLogSize() {
+        return slowRequestLogSize;
+    }
+
+    /**
+     * Returns the time window of the slow request log or {@code null} if the
+     * slow request log is disabled.
+     * @return the time window of the slow request log.
+     */
+    public Duration getSlowRequestLogWindow() {
+        return slowRequestLogWindow;
+    }
+
+    /**
+     * Creates a {@code Configuration} where the slowest requests of each
+     * resource method are captured together with their status, the names of
+     * their query parameters and a timestamp. The captured requests are
+     * discarded after two time windows. They are available by the
+     * {@link SlowRequestsMXBean} that is registered with the platform
+     * {@code MBeanServer}.
+     * <p>Requests that are not slower than the captured ones cost a single
+     * comparison, so the log can be enabled in production. Requests that
+     * are not timed because of sampling are not captured.
+     * @param size the number of requests that are captured per resource
+     *             method.
+     * @param window the time window, e.g. one minute.
+     * @return a new {@code Configuration} instance.
+     * @throws NullPointerException if the window is {@code null}.
+     * @throws IllegalArgumentException if the size or the window is not
+     * positive.
+     */
+    public Configuration withSlowRequestLog(
+        int size,
+        Duration window
+    ) {
+        Objects.requireNonNull(window, "window");
+        if (size < 1) {
+            throw new IllegalArgumentException(
+                "The size " + size + " of the slow request log is not"
+                    + " positive."
+            );
+        }
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException(
+                "The window " + window + " of the slow request log is not"
+                    + " positive."
+            );
+        }
+        Builder builder = new Builder(this);
+        builder.slowRequestLogSize = size;
+        builder.slowRequestLogWindow = window;
+        return new Configuration(builder);
+    }
+
+    /**
+     * Returns the rate of SLA breaches that triggers the
+     * {@link SlaBreachListener}.
+     * @return the rate of SLA breaches that triggers the listener.
+     */
+    public double getMaximumSlaBreachRate() {
+        return maximumSlaBreachRate;
+    }
+
+    /**
+     * Returns the sliding window for the rate of SLA breaches or
+     * {@code null} if the {@link SlaBreachListener} is not notified.
+     * @return the sliding window for the rate of SLA breaches.
+     */
+    public Duration getSlaAlertWindow() {
+        return slaAlertWindow;
+    }
+
+    /**
+     * Creates a {@code Configuration} where the {@link SlaBreachListener} is
+     * notified when the rate of requests that breach the SLA of a resource
+     * method exceeds the maximum rate during a sliding window. The rate is
+     * evaluated when the requests are recorded, so the listener reacts
+     * within a tenth of the window. Requests that are not timed because of
+     * sampling are not evaluated.
+     * @param maximumBreachRate the rate of SLA breaches that triggers the
+     *                          listener, e.g. {@code 0.05} for 5%.
+     * @param window the sliding window, e.g. one second.
+     * @return a new {@code Configuration} instance.
+     * @throws NullPointerException if the window is {@code null}.
+     * @see ResourceMetrics#sla()
+     */
+    public Configuration withSlaAlert(
+        double maximumBreachRate,
+        Duration window
+    ) {
+        Objects.requireNonNull(window, "window");
+        if (maximumBreachRate < 0 || maximumBreachRate >= 1) {
+            throw new IllegalArgumentException(
+                "The maximum breach rate " + maximumBreachRate
+                    + " is not between 0 (inclusive) and 1 (exclusive)."
+            );
+        }
+        if (window.toNanos() < 10) {
+            throw new IllegalArgumentException(
+                "The window " + window + " is too short."
+            );
+        }
+        Builder builder = new Builder(this);
+        builder.maximumSlaBreachRate = maximumBreachRate;
+        builder.slaAlertWindow = window;
+        return new Configuration(builder);
+    }
+
+    /**
+     * Returns {@code true} iff the level of detail of the resource methods
+     * can be changed at runtime.
+     * @return {@code true} iff the level of detail can be changed at
+     * runtime.
+     */
+    public boolean isRuntimeControlled() {
+        return runtimeControlled;
+    }
+
+    /**
+     * Creates a {@code Configuration} where the level of detail of each
+     * resource method can be changed at runtime by the
+     * {@link InstrumentationControlMXBean}. Every resource method is
+     * wrapped, even if it is disabled. Disabled methods start at the level
+     * {@code OFF}, which costs a single branch per request. Their meters
+     * are not registered before they are switched on.
+     * <p>At the level {@code FULL} the requests of resource methods without
+     * sampling are recorded by the timer {@code http.server.requests} as
+     * usual. At the levels {@code TIMER} and {@code COUNTER} they are
+     * published by the companion function timer
+     * {@code http.server.requests.reduced} like with
+     * {@link #withAdaptiveShedding(Duration) adaptive shedding}, because the
+     * histogram of a timer cannot be switched off after it has been
+     * registered. Sampled resource methods don't distinguish the levels
+     * {@code TIMER} and {@code FULL}.
+     * @return a new {@code Configuration} instance.
+     */
+    public Configuration withRuntimeControl() {
+        Builder builder = new Builder(this);
+        builder.runtimeControlled = true;
+        return new Configuration(builder);
+    }
+
+    /**
+     * The values of a new {@code Configuration}. It starts with the values
+     * of the default {@code Configuration} or of the {@code Configuration}
+     * that is changed.
+     */
+    private static final class Builder {
+        private boolean enabledByDefault = true;
+        private boolean publishPercentileHistogram = false;
+        private double[] percentiles = new double[0];
+        private Duration[] serviceLevelObjectives = new Duration[0];
+        private Duration minimumExpectedValue = null;
+        private Duration maximumExpectedValue = null;
+        private boolean taggedWithOutcome = false;
+        private int[] exactStatusCodes = null;
+        private boolean taggedWithException = false;
+        private int maximumExceptionTagValues = 0;
+        private boolean eagerRegistration = false;
+        private boolean activeRequestsTracked = false;
+        private boolean payloadSizesRecorded = false;
+        private int sampleRate = 1;
+        private Duration recordingCostLimit = null;
+        private int asyncQueueCapacity = 0;
+        private boolean stripedTimers = false;
+        private boolean asyncTiming = false;
+        private boolean completeResponseTimed = false;
+        private int maximumUris = Integer.MAX_VALUE;
+        private int maximumMeters = Integer.MAX_VALUE;
+        private boolean resourceUsageRecorded = false;
+        private int slowRequestLogSize = 0;
+        private Duration slowRequestLogWindow = null;
+        private double maximumSlaBreachRate = 0d;
+        private Duration slaAlertWindow = null;
+        private boolean runtimeControlled = false;
+
+        private Builder() {
+        }
+
+        private Builder(
+            Configuration configuration
+        ) {
+            this.enabledByDefault = configuration.enabledByDefault;
+            this.publishPercentileHistogram = configuration.publishPercentileHistogram;
+            this.percentiles = configuration.percentiles;
+            this.serviceLevelObjectives = configuration.serviceLevelObjectives;
+            this.minimumExpectedValue = configuration.minimumExpectedValue;
+            this.maximumExpectedValue = configuration.maximumExpectedValue;
+            this.taggedWithOutcome = configuration.taggedWithOutcome;
+            this.exactStatusCodes = configuration.exactStatusCodes;
+            this.taggedWithException = configuration.taggedWithException;
+            this.maximumExceptionTagValues = configuration.maximumExceptionTagValues;
+            this.eagerRegistration = configuration.eagerRegistration;
+            this.activeRequestsTracked = configuration.activeRequestsTracked;
+            this.payloadSizesRecorded = configuration.payloadSizesRecorded;
+            this.sampleRate = configuration.sampleRate;
+            this.recordingCostLimit = configuration.recordingCostLimit;
+            this.asyncQueueCapacity = configuration.asyncQueueCapacity;
+            this.stripedTimers = configuration.stripedTimers;
+            this.asyncTiming = configuration.asyncTiming;
+            this.completeResponseTimed = configuration.completeResponseTimed;
+            this.maximumUris = configuration.maximumUris;
+            this.maximumMeters = configuration.maximumMeters;
+            this.resourceUsageRecorded = configuration.resourceUsageRecorded;
+            this.slowRequestLogSize = configuration.slowRequestLogSize;
+            this.slowRequestLogWindow = configuration.slowRequestLogWindow;
+            this.maximumSlaBreachRate = configuration.maximumSlaBreachRate;
+            this.slaAlertWindow = configuration.slaAlertWindow;
+            this.runtimeControlled = configuration.runtimeControlled;
+        }
+    }
+}
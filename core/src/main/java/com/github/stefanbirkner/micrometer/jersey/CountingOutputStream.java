@@ -0,0 +1,52 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Counts the bytes that are written to another {@code OutputStream}.
+ */
+final class CountingOutputStream
+    extends OutputStream
+{
+    private final OutputStream out;
+    private long count = 0;
+
+    CountingOutputStream(
+        OutputStream out
+    ) {
+        this.out = out;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    @Override
+    public void write(
+        int b
+    ) throws IOException {
+        out.write(b);
+        ++count;
+    }
+
+    @Override
+    public void write(
+        byte[] b,
+        int off,
+        int len
+    ) throws IOException {
+        out.write(b, off, len);
+        count += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
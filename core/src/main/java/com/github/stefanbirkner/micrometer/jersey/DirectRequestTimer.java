@@ -0,0 +1,59 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.function.Function;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * A {@link RequestTimer} that records every request with a Micrometer
+ * {@link Timer}. It is used for resource methods that are not sampled.
+ */
+final class DirectRequestTimer implements RequestTimer {
+    private final Timer timer;
+
+    private DirectRequestTimer(
+        Timer timer
+    ) {
+        this.timer = timer;
+    }
+
+    static Function<Tags, RequestTimer> registeredIn(
+        MeterRegistry meterRegistry,
+        DistributionSettings distributionSettings
+    ) {
+        return registeredIn(
+            StatusTimers.NAME,
+            meterRegistry,
+            distributionSettings
+        );
+    }
+
+    static Function<Tags, RequestTimer> registeredIn(
+        String name,
+        MeterRegistry meterRegistry,
+        DistributionSettings distributionSettings
+    ) {
+        return tags -> new DirectRequestTimer(
+            distributionSettings.applyTo(
+                Timer.builder(name).tags(tags)
+            ).register(meterRegistry)
+        );
+    }
+
+    @Override
+    public void record(
+        long durationNanos
+    ) {
+        timer.record(durationNanos, NANOSECONDS);
+    }
+
+    @Override
+    public void countUntimed() {
+        //not called because every request of a resource method without
+        //sampling is timed
+    }
+}
@@ -0,0 +1,134 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * The histogram and percentile settings of the timers of a single resource
+ * method. The settings of the method's {@link ResourceMetrics} annotation
+ * take precedence over the {@link Configuration}.
+ */
+final class DistributionSettings {
+    static final DistributionSettings NONE = new DistributionSettings(
+        false,
+        new double[0],
+        new Duration[0],
+        null,
+        null
+    );
+
+    private final boolean publishPercentileHistogram;
+    private final double[] percentiles;
+    private final Duration[] serviceLevelObjectives;
+    private final Duration minimumExpectedValue;
+    private final Duration maximumExpectedValue;
+
+    private DistributionSettings(
+        boolean publishPercentileHistogram,
+        double[] percentiles,
+        Duration[] serviceLevelObjectives,
+        Duration minimumExpectedValue,
+        Duration maximumExpectedValue
+    ) {
+        this.publishPercentileHistogram = publishPercentileHistogram;
+        this.percentiles = percentiles;
+        this.serviceLevelObjectives = serviceLevelObjectives;
+        this.minimumExpectedValue = minimumExpectedValue;
+        this.maximumExpectedValue = maximumExpectedValue;
+    }
+
+    /**
+     * Resolves the settings of a resource method.
+     * @param configuration the library's configuration.
+     * @param annotation the annotation of the method or its class. May be
+     *                   {@code null}.
+     * @return the settings of the resource method.
+     */
+    static DistributionSettings of(
+        Configuration configuration,
+        ResourceMetrics annotation
+    ) {
+        if (annotation == null) {
+            return new DistributionSettings(
+                configuration.isPublishPercentileHistogram(),
+                configuration.getPercentiles(),
+                configuration.getServiceLevelObjectives(),
+                configuration.getMinimumExpectedValue(),
+                configuration.getMaximumExpectedValue()
+            );
+        } else {
+            return new DistributionSettings(
+                publishPercentileHistogram(configuration, annotation),
+                annotation.percentiles().length == 0
+                    ? configuration.getPercentiles()
+                    : annotation.percentiles(),
+                annotation.serviceLevelObjectives().length == 0
+                    ? configuration.getServiceLevelObjectives()
+                    : parse(annotation.serviceLevelObjectives()),
+                annotation.minimumExpectedValue().isEmpty()
+                    ? configuration.getMinimumExpectedValue()
+                    : Durations.parse(annotation.minimumExpectedValue()),
+                annotation.maximumExpectedValue().isEmpty()
+                    ? configuration.getMaximumExpectedValue()
+                    : Durations.parse(annotation.maximumExpectedValue())
+            );
+        }
+    }
+
+    private static boolean publishPercentileHistogram(
+        Configuration configuration,
+        ResourceMetrics annotation
+    ) {
+        switch (annotation.publishPercentileHistogram()) {
+            case ENABLED:
+                return true;
+            case DISABLED:
+                return false;
+            default:
+                return configuration.isPublishPercentileHistogram();
+        }
+    }
+
+    private static Duration[] parse(
+        String[] durations
+    ) {
+        return Arrays.stream(durations)
+            .map(Durations::parse)
+            .toArray(Duration[]::new);
+    }
+
+    double[] percentiles() {
+        return percentiles.clone();
+    }
+
+    /**
+     * Applies the settings to a timer. Settings that are not specified are
+     * not applied so that the defaults of the registry and its
+     * {@link io.micrometer.core.instrument.config.MeterFilter MeterFilters}
+     * are used.
+     * @param builder the builder of the timer.
+     * @return the builder.
+     */
+    Timer.Builder applyTo(
+        Timer.Builder builder
+    ) {
+        if (publishPercentileHistogram) {
+            builder.publishPercentileHistogram();
+        }
+        if (percentiles.length > 0) {
+            builder.publishPercentiles(percentiles);
+        }
+        if (serviceLevelObjectives.length > 0) {
+            builder.serviceLevelObjectives(serviceLevelObjectives);
+        }
+        if (minimumExpectedValue != null) {
+            builder.minimumExpectedValue(minimumExpectedValue);
+        }
+        if (maximumExpectedValue != null) {
+            builder.maximumExpectedValue(maximumExpectedValue);
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,54 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses the durations that are specified by {@link ResourceMetrics}.
+ */
+final class Durations {
+    private static final Pattern SIMPLE_DURATION = Pattern.compile(
+        "(\\d+)\\s*(ns|us|ms|s|m|h)"
+    );
+
+    private Durations() {
+    }
+
+    static Duration parse(
+        String value
+    ) {
+        Matcher matcher = SIMPLE_DURATION.matcher(
+            value.trim().toLowerCase(Locale.ROOT)
+        );
+        if (matcher.matches()) {
+            long amount = Long.parseLong(matcher.group(1));
+            switch (matcher.group(2)) {
+                case "ns":
+                    return Duration.ofNanos(amount);
+                case "us":
+                    return Duration.ofNanos(amount * 1_000);
+                case "ms":
+                    return Duration.ofMillis(amount);
+                case "s":
+                    return Duration.ofSeconds(amount);
+                case "m":
+                    return Duration.ofMinutes(amount);
+                default:
+                    return Duration.ofHours(amount);
+            }
+        }
+
+        try {
+            return Duration.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(
+                "Invalid duration '" + value + "'. Use a duration like"
+                    + " 250ms or an ISO-8601 duration like PT0.25S.",
+                e
+            );
+        }
+    }
+}
@@ -0,0 +1,447 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import com.sun.jersey.api.core.HttpContext;
+import com.sun.jersey.api.core.HttpRequestContext;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.DistributionSummary;
+
+import javax.ws.rs.core.HttpHeaders;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The meters of a resource method for a single {@code uri}. Usually there
+ * is one {@code Endpoint} per resource method, but methods of sub-resources
+ * that are reached by different sub-resource locators have one per path.
+ * <p>Optional meters are {@code null} if they are not enabled.
+ */
+final class Endpoint {
+    private final StatusTimers timers;
+    private final StatusTimers completeTimers;
+    private final int sampleRate;
+    private final AdaptiveShedding shedding;
+    private final LongAdder activeRequests;
+    private final StatusMeters<DistributionSummary> requestSizes;
+    private final StatusMeters<DistributionSummary> responseSizes;
+    private final ResourceUsage resourceUsage;
+    private final SlowestRequests slowestRequests;
+    private final SlaMonitor slaMonitor;
+    private final InstrumentationSwitch instrumentationSwitch;
+    private final Clock clock;
+    private final boolean timedUntilCommit;
+
+    private Endpoint(
+        Builder builder
+    ) {
+        this.timers = builder.timers;
+        this.completeTimers = builder.completeTimers;
+        this.sampleRate = builder.sampleRate;
+        this.shedding = builder.shedding;
+        this.activeRequests = builder.activeRequests;
+        this.requestSizes = builder.requestSizes;
+        this.responseSizes = builder.responseSizes;
+        this.resourceUsage = builder.resourceUsage;
+        this.slowestRequests = builder.slowestRequests;
+        this.slaMonitor = builder.slaMonitor;
+        this.instrumentationSwitch = builder.instrumentationSwitch;
+        this.clock = builder.clock;
+        this.timedUntilCommit = builder.timedUntilCommit;
+    }
+
+    /**
+     * Creates a builder for an {@code Endpoint} that only has timers. The
+     * optional meters are added by the builder's methods.
+     * @param timers the timers of the endpoint.
+     * @param clock the clock for timing responses.
+     * @return the builder.
+     */
+    static Builder builder(
+        StatusTimers timers,
+        Clock clock
+    ) {
+        return new Builder(timers, clock);
+    }
+
+    StatusTimers timers() {
+        return timers;
+    }
+
+    ResourceUsage resourceUsage() {
+        return resourceUsage;
+    }
+
+    /**
+     * Decides whether the current request is timed.
+     * @return {@code true} iff the current request is timed.
+     */
+    boolean sample() {
+        if (instrumentationSwitch != null
+            && instrumentationSwitch.level() == InstrumentationLevel.COUNTER) {
+            return false;
+        }
+        if (shedding != null
+            && shedding.level() == InstrumentationLevel.COUNTER) {
+            return false; //only the probes are timed
+        }
+        //ThreadLocalRandom has no shared state and therefore the decision
+        //does not cause contention between the request threads.
+        return sampleRate == 1
+            || ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+    }
+
+    /**
+     * Decides whether the cost of the current request's instrumentation is
+     * measured by the {@link AdaptiveShedding}. Probes are timed and
+     * recorded by {@link RequestTimer#recordProbe(long)}.
+     * @return {@code true} iff the current request is a probe.
+     */
+    boolean probe() {
+        if (shedding == null) {
+            return false;
+        }
+        if (instrumentationSwitch != null
+            && instrumentationSwitch.level() == InstrumentationLevel.COUNTER) {
+            return false; //not timed
+        }
+        return shedding.probe();
+    }
+
+    /**
+     * Reports the cost of the instrumentation of a probe to the
+     * {@link AdaptiveShedding}.
+     * @param costNanos the cost of the instrumentation.
+     */
+    void probeFinished(
+        long costNanos
+    ) {
+        shedding.recordCost(costNanos);
+    }
+
+    /**
+     * Tracks the start of a request and installs a
+     * {@link MeteredResponseWriter} if the response is measured.
+     * @param context the context of the request.
+     * @return the writer or {@code null} if none has been installed.
+     */
+    MeteredResponseWriter requestStarted(
+        HttpContext context
+    ) {
+        if (activeRequests != null) {
+            activeRequests.increment();
+        }
+        if (responseSizes != null || needsStart()) {
+            return MeteredResponseWriter.install(context, this);
+        } else {
+            return null;
+        }
+    }
+
+    boolean isTimedUntilCommit() {
+        return timedUntilCommit;
+    }
+
+    /**
+     * Returns {@code true} iff the start of a request has to be remembered
+     * because it is recorded after the resource method has returned.
+     * @return {@code true} iff the start of a request has to be remembered.
+     */
+    boolean needsStart() {
+        return timedUntilCommit || completeTimers != null;
+    }
+
+    /**
+     * Remembers the start of a request that is recorded when its response is
+     * committed or finished.
+     * @param writer the writer of the response.
+     * @param timed whether the request is timed.
+     * @param start the start time of the request.
+     */
+    void rememberStart(
+        MeteredResponseWriter writer,
+        boolean timed,
+        long start
+    ) {
+        writer.rememberStart(
+            timed,
+            start,
+            timedUntilCommit,
+            completeTimers != null
+        );
+    }
+
+    /**
+     * Records a request that is timed until its response is committed.
+     * @param context the context of the request.
+     * @param status the status of the response.
+     * @param timed whether the request is timed.
+     * @param start the start time of the request.
+     */
+    void responseCommitted(
+        HttpContext context,
+        int status,
+        boolean timed,
+        long start
+    ) {
+        if (timed) {
+            long now = clock.monotonicTime();
+            long duration = now - start;
+            timers.forStatus(status).record(duration);
+            durationRecorded(context, status, duration, now);
+        } else {
+            timers.forStatus(status).countUntimed();
+        }
+        recordRequestSize(context, status);
+    }
+
+    /**
+     * Evaluates the duration of a request that has been timed. The request
+     * is captured if it is one of the slowest recent requests and it is
+     * checked against the SLA.
+     * @param context the context of the request.
+     * @param status the status of the response.
+     * @param durationNanos the duration of the request.
+     * @param now the monotonic time at the end of the request.
+     */
+    void durationRecorded(
+        HttpContext context,
+        int status,
+        long durationNanos,
+        long now
+    ) {
+        if (slowestRequests != null) {
+            slowestRequests.offer(context, status, durationNanos, now);
+        }
+        if (slaMonitor != null) {
+            slaMonitor.record(durationNanos, now);
+        }
+    }
+
+    /**
+     * Records a request whose response's entity has been written
+     * completely. Failed requests are recorded, too.
+     * @param status the status of the response.
+     * @param timed whether the request is timed.
+     * @param start the start time of the request.
+     */
+    void responseFinished(
+        int status,
+        boolean timed,
+        long start
+    ) {
+        RequestTimer timer = completeTimers.forStatus(status);
+        if (timed) {
+            timer.record(clock.monotonicTime() - start);
+        } else {
+            timer.countUntimed();
+        }
+    }
+
+    boolean isResponseSizeRecorded() {
+        return responseSizes != null;
+    }
+
+    void recordResponseSize(
+        int status,
+        long size
+    ) {
+        responseSizes.forStatus(status).record(size);
+    }
+
+    void requestFinished() {
+        if (activeRequests != null) {
+            activeRequests.decrement();
+        }
+    }
+
+    void recordRequestSize(
+        HttpContext context,
+        int status
+    ) {
+        if (requestSizes != null) {
+            long contentLength = contentLength(context.getRequest());
+            if (contentLength >= 0) {
+                requestSizes.forStatus(status).record(contentLength);
+            }
+        }
+    }
+
+    private long contentLength(
+        HttpRequestContext request
+    ) {
+        String contentLength = request.getHeaderValue(
+            HttpHeaders.CONTENT_LENGTH
+        );
+        if (contentLength == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentLength);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Builder for an {@link Endpoint}. Meters that are not set are not
+     * enabled.
+     */
+    static final class Builder {
+        private final StatusTimers timers;
+        private final Clock clock;
+        private StatusTimers completeTimers;
+        private int sampleRate = 1;
+        private AdaptiveShedding shedding;
+        private LongAdder activeRequests;
+        private StatusMeters<DistributionSummary> requestSizes;
+        private StatusMeters<DistributionSummary> responseSizes;
+        private ResourceUsage resourceUsage;
+        private SlowestRequests slowestRequests;
+        private SlaMonitor slaMonitor;
+        private InstrumentationSwitch instrumentationSwitch;
+        private boolean timedUntilCommit;
+
+        private Builder(
+            StatusTimers timers,
+            Clock clock
+        ) {
+            this.timers = timers;
+            this.clock = clock;
+        }
+
+        /**
+         * @param completeTimers the timers that include writing the
+         *                       response's entity or {@code null}.
+         * @return this builder.
+         */
+        Builder completeTimers(
+            StatusTimers completeTimers
+        ) {
+            this.completeTimers = completeTimers;
+            return this;
+        }
+
+        /**
+         * @param sampleRate only one in {@code sampleRate} requests is
+         *                   timed. The default is {@code 1}.
+         * @return this builder.
+         */
+        Builder sampleRate(
+            int sampleRate
+        ) {
+            this.sampleRate = sampleRate;
+            return this;
+        }
+
+        /**
+         * @param shedding the adaptive shedding or {@code null}.
+         * @return this builder.
+         */
+        Builder shedding(
+            AdaptiveShedding shedding
+        ) {
+            this.shedding = shedding;
+            return this;
+        }
+
+        /**
+         * @param activeRequests the number of requests that are currently
+         *                       executed or {@code null}.
+         * @return this builder.
+         */
+        Builder activeRequests(
+            LongAdder activeRequests
+        ) {
+            this.activeRequests = activeRequests;
+            return this;
+        }
+
+        /**
+         * @param requestSizes the sizes of the requests' entities or
+         *                     {@code null}.
+         * @return this builder.
+         */
+        Builder requestSizes(
+            StatusMeters<DistributionSummary> requestSizes
+        ) {
+            this.requestSizes = requestSizes;
+            return this;
+        }
+
+        /**
+         * @param responseSizes the sizes of the responses' entities or
+         *                      {@code null}.
+         * @return this builder.
+         */
+        Builder responseSizes(
+            StatusMeters<DistributionSummary> responseSizes
+        ) {
+            this.responseSizes = responseSizes;
+            return this;
+        }
+
+        /**
+         * @param resourceUsage the CPU time and allocated memory of the
+         *                      invocations or {@code null}.
+         * @return this builder.
+         */
+        Builder resourceUsage(
+            ResourceUsage resourceUsage
+        ) {
+            this.resourceUsage = resourceUsage;
+            return this;
+        }
+
+        /**
+         * @param slowestRequests the slowest recent requests or
+         *                        {@code null}.
+         * @return this builder.
+         */
+        Builder slowestRequests(
+            SlowestRequests slowestRequests
+        ) {
+            this.slowestRequests = slowestRequests;
+            return this;
+        }
+
+        /**
+         * @param slaMonitor the monitor of the SLA or {@code null}.
+         * @return this builder.
+         */
+        Builder slaMonitor(
+            SlaMonitor slaMonitor
+        ) {
+            this.slaMonitor = slaMonitor;
+            return this;
+        }
+
+        /**
+         * @param instrumentationSwitch the level of the endpoint or
+         *                              {@code null} if it cannot be changed
+         *                              at runtime.
+         * @return this builder.
+         */
+        Builder instrumentationSwitch(
+            InstrumentationSwitch instrumentationSwitch
+        ) {
+            this.instrumentationSwitch = instrumentationSwitch;
+            return this;
+        }
+
+        /**
+         * @param timedUntilCommit {@code true} iff requests are timed until
+         *                         their response is committed instead of
+         *                         until the resource method returns.
+         * @return this builder.
+         */
+        Builder timedUntilCommit(
+            boolean timedUntilCommit
+        ) {
+            this.timedUntilCommit = timedUntilCommit;
+            return this;
+        }
+
+        Endpoint build() {
+            return new Endpoint(this);
+        }
+    }
+}
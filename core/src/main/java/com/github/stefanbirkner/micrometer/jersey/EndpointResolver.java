@@ -0,0 +1,30 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import com.sun.jersey.api.core.HttpContext;
+
+/**
+ * Determines the {@link Endpoint} of a request.
+ */
+interface EndpointResolver {
+    /**
+     * Returns the endpoint of a request.
+     * @param context the context of the request.
+     * @return the endpoint or {@code null} if the request is not recorded
+     * because its resource method has been switched off.
+     */
+    Endpoint resolve(
+        HttpContext context
+    );
+
+    /**
+     * Creates a resolver that always returns the same endpoint. It is used
+     * for methods of root resources because their path is known at startup.
+     * @param endpoint the endpoint that is returned for every request.
+     * @return the resolver.
+     */
+    static EndpointResolver fixed(
+        Endpoint endpoint
+    ) {
+        return context -> endpoint;
+    }
+}
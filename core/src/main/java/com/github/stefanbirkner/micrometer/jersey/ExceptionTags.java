@@ -0,0 +1,70 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Provides the values of the {@code exception} tag. The number of different
+ * values is limited for all resource methods together. Exceptions that are
+ * seen after the limit has been reached are tagged with {@code [other]}.
+ * The brackets cannot be part of a class name, so the value does not
+ * collide with the name of an exception.
+ */
+final class ExceptionTags {
+    static final ExceptionTags DISABLED = new ExceptionTags(false, 0);
+    static final String NO_EXCEPTION = "None";
+    static final String OTHER_EXCEPTION = "[other]";
+
+    private final boolean enabled;
+    private final int maximumValues;
+    private final ConcurrentMap<Class<?>, String> values
+        = new ConcurrentHashMap<>();
+
+    private ExceptionTags(
+        boolean enabled,
+        int maximumValues
+    ) {
+        this.enabled = enabled;
+        this.maximumValues = maximumValues;
+    }
+
+    static ExceptionTags of(
+        Configuration configuration
+    ) {
+        if (configuration.isTaggedWithException()) {
+            return new ExceptionTags(
+                true,
+                configuration.getMaximumExceptionTagValues()
+            );
+        } else {
+            return DISABLED;
+        }
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    String valueFor(
+        Throwable exception
+    ) {
+        Class<?> type = exception.getClass();
+        String value = values.get(type);
+        if (value != null) {
+            return value;
+        } else if (values.size() < maximumValues) {
+            // Concurrent requests may exceed the limit by a few values.
+            return values.computeIfAbsent(type, ExceptionTags::nameOf);
+        } else {
+            return OTHER_EXCEPTION;
+        }
+    }
+
+    private static String nameOf(
+        Class<?> type
+    ) {
+        String simpleName = type.getSimpleName();
+        // anonymous classes have no simple name
+        return simpleName.isEmpty() ? type.getName() : simpleName;
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import io.micrometer.core.instrument.Tags;
+
+import javax.management.ObjectName;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The {@link InstrumentationSwitch InstrumentationSwitches} of all
+ * endpoints of a {@link MicrometerWrapperFactory}.
+ */
+final class InstrumentationControl implements InstrumentationControlMXBean {
+    //Endpoints with the same tags share their switch.
+    private final ConcurrentMap<Tags, InstrumentationSwitch> switches
+        = new ConcurrentHashMap<>();
+
+    /**
+     * Registers the control with the platform {@code MBeanServer}.
+     * @return the name of the MBean.
+     */
+    ObjectName registerMBean() {
+        return MBeans.register(this, "InstrumentationControl");
+    }
+
+    InstrumentationSwitch switchFor(
+        Tags tags,
+        InstrumentationLevel initialLevel
+    ) {
+        return switches.computeIfAbsent(
+            tags,
+            key -> new InstrumentationSwitch(initialLevel)
+        );
+    }
+
+    @Override
+    public Map<String, String> getLevels() {
+        Map<String, String> levels = new TreeMap<>();
+        switches.forEach(
+            (tags, instrumentationSwitch) -> levels.put(
+                TagsPool.valueOf(tags, "method") + " "
+                    + TagsPool.valueOf(tags, "uri"),
+                instrumentationSwitch.level().name()
+            )
+        );
+        return levels;
+    }
+
+    @Override
+    public void setLevel(
+        String method,
+        String uri,
+        String level
+    ) {
+        InstrumentationSwitch instrumentationSwitch = switches.get(
+            Tags.of("method", method, "uri", uri)
+        );
+        if (instrumentationSwitch == null) {
+            throw new IllegalArgumentException(
+                "There is no resource method " + method + " " + uri + "."
+            );
+        }
+        instrumentationSwitch.setLevel(parse(level));
+    }
+
+    @Override
+    public void setLevelOfAllMethods(
+        String level
+    ) {
+        InstrumentationLevel instrumentationLevel = parse(level);
+        for (InstrumentationSwitch instrumentationSwitch: switches.values()) {
+            instrumentationSwitch.setLevel(instrumentationLevel);
+        }
+    }
+
+    private static InstrumentationLevel parse(
+        String level
+    ) {
+        try {
+            return InstrumentationLevel.valueOf(
+                level.trim().toUpperCase(Locale.ROOT)
+            );
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                "There is no level " + level + ". Use OFF, COUNTER, TIMER"
+                    + " or FULL.",
+                e
+            );
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import java.util.Map;
+
+/**
+ * Changes the amount of detail that is recorded for the resource methods at
+ * runtime. It is registered with the platform {@code MBeanServer} in the
+ * domain {@code com.github.stefanbirkner.micrometer.jersey} with the type
+ * {@code InstrumentationControl} if runtime control is enabled.
+ * <p>The levels are
+ * <ul>
+ * <li>{@code OFF}: requests are not recorded at all.</li>
+ * <li>{@code COUNTER}: requests are counted but not timed.</li>
+ * <li>{@code TIMER}: requests are timed by the function timer
+ * {@code http.server.requests.reduced} without histogram.</li>
+ * <li>{@code FULL}: requests are recorded by the timer
+ * {@code http.server.requests} with its histogram.</li>
+ * </ul>
+ * @see Configuration#withRuntimeControl()
+ */
+public interface InstrumentationControlMXBean {
+    /**
+     * Returns the levels of the resource methods. The keys are the HTTP
+     * method and the uri of the resource methods, e.g. {@code "GET /users"}.
+     * Methods of sub-resources are listed after they have been invoked for
+     * the first time.
+     * @return the levels of the resource methods.
+     */
+    Map<String, String> getLevels();
+
+    /**
+     * Changes the level of a single resource method.
+     * @param method the HTTP method of the resource method.
+     * @param uri the uri of the resource method. This is the same value
+     *            like the tag {@code uri} of the timers.
+     * @param level the new level.
+     * @throws IllegalArgumentException if there is no such resource method
+     * or no such level.
+     */
+    void setLevel(
+        String method,
+        String uri,
+        String level
+    );
+
+    /**
+     * Changes the level of all resource methods.
+     * @param level the new level.
+     * @throws IllegalArgumentException if there is no such level.
+     */
+    void setLevelOfAllMethods(
+        String level
+    );
+}
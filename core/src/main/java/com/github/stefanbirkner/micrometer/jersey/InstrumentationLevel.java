@@ -0,0 +1,54 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+/**
+ * The amount of detail that is recorded for each request. The levels are
+ * ordered from the cheapest to the most detailed one.
+ */
+enum InstrumentationLevel {
+    /**
+     * Requests are not recorded at all. This level is only used by the
+     * {@link InstrumentationControl} and never by {@link AdaptiveShedding}.
+     */
+    OFF(0),
+    /**
+     * Requests are counted but not timed.
+     */
+    COUNTER(1),
+    /**
+     * Requests are timed but no distribution statistics are recorded.
+     */
+    TIMER(2),
+    /**
+     * Requests are timed and the histograms and percentiles are recorded.
+     */
+    FULL(3);
+
+    private final int value;
+
+    InstrumentationLevel(
+        int value
+    ) {
+        this.value = value;
+    }
+
+    /**
+     * Returns the value that is published by the level's gauge.
+     * @return the value that is published by the level's gauge.
+     */
+    int value() {
+        return value;
+    }
+
+    /**
+     * Returns the next lower level. {@link #COUNTER} is the lowest level
+     * that the shedding can reach.
+     * @return the next lower level.
+     */
+    InstrumentationLevel lower() {
+        return this == FULL ? TIMER : COUNTER;
+    }
+
+    InstrumentationLevel higher() {
+        return this == TIMER || this == FULL ? FULL : values()[ordinal() + 1];
+    }
+}
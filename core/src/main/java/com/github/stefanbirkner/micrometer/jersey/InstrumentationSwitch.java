@@ -0,0 +1,31 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+/**
+ * The {@link InstrumentationLevel} of a single {@link Endpoint} that can be
+ * changed at runtime by the {@link InstrumentationControl}.
+ * <p>The level is a volatile field, so a request that is not recorded costs
+ * a single read and a branch that is well predicted.
+ */
+final class InstrumentationSwitch {
+    private volatile InstrumentationLevel level;
+
+    InstrumentationSwitch(
+        InstrumentationLevel level
+    ) {
+        this.level = level;
+    }
+
+    InstrumentationLevel level() {
+        return level;
+    }
+
+    boolean isOff() {
+        return level == InstrumentationLevel.OFF;
+    }
+
+    void setLevel(
+        InstrumentationLevel level
+    ) {
+        this.level = level;
+    }
+}
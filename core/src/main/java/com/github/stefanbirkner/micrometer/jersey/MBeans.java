@@ -0,0 +1,68 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registers the MBeans of the library with the platform
+ * {@code MBeanServer} and unregisters them when they are not needed
+ * anymore, e.g. when an application is redeployed.
+ */
+final class MBeans {
+    private static final String DOMAIN
+        = "com.github.stefanbirkner.micrometer.jersey";
+    private static final AtomicInteger IDS = new AtomicInteger();
+
+    private MBeans() {
+    }
+
+    /**
+     * Registers an MBean. Each MBean gets its own id, so that applications
+     * in the same JVM don't interfere.
+     * @param mbean the MBean.
+     * @param type the value of the key property {@code type}.
+     * @return the name of the MBean, which is needed for unregistering it.
+     */
+    static ObjectName register(
+        Object mbean,
+        String type
+    ) {
+        try {
+            ObjectName name = new ObjectName(
+                DOMAIN + ":type=" + type + ",id=" + IDS.incrementAndGet()
+            );
+            ManagementFactory.getPlatformMBeanServer()
+                .registerMBean(mbean, name);
+            return name;
+        } catch (JMException e) {
+            throw new IllegalStateException(
+                "Cannot register the MBean " + type + " with JMX.",
+                e
+            );
+        }
+    }
+
+    /**
+     * Unregisters an MBean. Nothing happens if it has been unregistered
+     * already.
+     * @param name the name that has been returned by
+     *             {@link #register(Object, String)}.
+     */
+    static void unregister(
+        ObjectName name
+    ) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (InstanceNotFoundException e) {
+            //has been unregistered already
+        } catch (JMException e) {
+            throw new IllegalStateException(
+                "Cannot unregister the MBean " + name + " from JMX.",
+                e
+            );
+        }
+    }
+}
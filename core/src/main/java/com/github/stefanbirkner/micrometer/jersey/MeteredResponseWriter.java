@@ -0,0 +1,159 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import com.sun.jersey.api.core.HttpContext;
+import com.sun.jersey.spi.container.ContainerResponse;
+import com.sun.jersey.spi.container.ContainerResponseWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static com.github.stefanbirkner.micrometer.jersey.StatusMeters.UNKNOWN_STATUS;
+
+/**
+ * Wraps the {@code ContainerResponseWriter} of a request in order to
+ * observe when the response is committed and finished and to measure the
+ * response's entity. The response is written by Jersey after the resource
+ * method has returned, possibly by another thread, and therefore cannot be
+ * measured by the dispatch wrapper itself.
+ * <p>A request is recorded even if writing the response fails. It is
+ * recorded with an unknown status if the status and headers could not be
+ * written.
+ * <p>The writer also holds the start of a request that is recorded when its
+ * response is committed or finished. It is stored as a primitive, so
+ * timing a request until then does not create any object apart from the
+ * writer itself. Like the properties of the request, it is written before
+ * the resource method is invoked and therefore visible to the thread that
+ * writes the response.
+ */
+final class MeteredResponseWriter
+    implements ContainerResponseWriter
+{
+    private final ContainerResponseWriter writer;
+    private final HttpContext context;
+    private final Endpoint endpoint;
+    private CountingOutputStream out;
+    private int status = UNKNOWN_STATUS;
+    private boolean committed;
+    private boolean timed;
+    private long start;
+    private boolean recordedOnCommit;
+    private boolean recordedOnFinish;
+
+    MeteredResponseWriter(
+        ContainerResponseWriter writer,
+        HttpContext context,
+        Endpoint endpoint
+    ) {
+        this.writer = writer;
+        this.context = context;
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Replaces the writer of the response by a {@code MeteredResponseWriter}.
+     * Does nothing if the response is not a {@code ContainerResponse}.
+     * @param context the context of the request.
+     * @param endpoint the endpoint that is notified about the response.
+     * @return the new writer or {@code null} if the response is not a
+     * {@code ContainerResponse}.
+     */
+    static MeteredResponseWriter install(
+        HttpContext context,
+        Endpoint endpoint
+    ) {
+        Object response = context.getResponse();
+        if (response instanceof ContainerResponse) {
+            ContainerResponse containerResponse = (ContainerResponse) response;
+            MeteredResponseWriter writer = new MeteredResponseWriter(
+                containerResponse.getContainerResponseWriter(),
+                context,
+                endpoint
+            );
+            containerResponse.setContainerResponseWriter(writer);
+            return writer;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Remembers the start of the request.
+     * @param timed whether the request is timed.
+     * @param start the start time of the request.
+     * @param recordedOnCommit whether the request is recorded when the
+     *                         response is committed.
+     * @param recordedOnFinish whether the request is recorded when the
+     *                         response is finished.
+     */
+    void rememberStart(
+        boolean timed,
+        long start,
+        boolean recordedOnCommit,
+        boolean recordedOnFinish
+    ) {
+        this.timed = timed;
+        this.start = start;
+        this.recordedOnCommit = recordedOnCommit;
+        this.recordedOnFinish = recordedOnFinish;
+    }
+
+    /**
+     * Prevents that the request is recorded when the response is committed,
+     * because it has been recorded already.
+     */
+    void forgetStart() {
+        recordedOnCommit = false;
+    }
+
+    @Override
+    public OutputStream writeStatusAndHeaders(
+        long contentLength,
+        ContainerResponse response
+    ) throws IOException {
+        OutputStream stream;
+        committed = true;
+        try {
+            stream = writer.writeStatusAndHeaders(contentLength, response);
+            status = response.getStatus();
+        } finally {
+            //The status is unknown if it has not been sent to the client.
+            committed(status);
+        }
+        if (endpoint.isResponseSizeRecorded()) {
+            out = new CountingOutputStream(stream);
+            return out;
+        } else {
+            return stream;
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (!committed) {
+            //The response is finished without writing its status, e.g.
+            //because writing failed before. The request is still recorded.
+            committed = true;
+            committed(UNKNOWN_STATUS);
+        }
+        try {
+            writer.finish();
+            if (out != null) {
+                endpoint.recordResponseSize(status, out.getCount());
+            }
+        } finally {
+            if (recordedOnFinish) {
+                recordedOnFinish = false;
+                endpoint.responseFinished(status, timed, start);
+            }
+        }
+    }
+
+    private void committed(
+        int status
+    ) {
+        if (recordedOnCommit) {
+            recordedOnCommit = false;
+            endpoint.responseCommitted(context, status, timed, start);
+        }
+    }
+}
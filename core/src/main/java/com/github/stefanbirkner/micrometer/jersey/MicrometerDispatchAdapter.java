@@ -0,0 +1,140 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import com.palominolabs.jersey.dispatchwrapper.ResourceMethodDispatchWrapper;
+import com.palominolabs.jersey.dispatchwrapper.ResourceMethodDispatchWrapperChain;
+import com.sun.jersey.spi.container.ResourceMethodDispatchAdapter;
+import com.sun.jersey.spi.container.ResourceMethodDispatchProvider;
+import com.sun.jersey.spi.dispatch.RequestDispatcher;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import javax.ws.rs.ext.Provider;
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Registers the metrics with Jersey without Guice. Add an instance of the
+ * adapter to the singletons of your Jersey application.
+ * <pre>
+ * ResourceConfig config = new DefaultResourceConfig(SomeResource.class);
+ * config.getSingletons().add(
+ *     new MicrometerDispatchAdapter(meterRegistry, new Configuration())
+ * );
+ * </pre>
+ * <p>The adapter is annotated with {@code @Provider}, so Jersey treats it as
+ * a provider and not as a resource.
+ * <p>The adapter does not need {@link ResourceMethodMicrometerModule} and
+ * {@code ResourceMethodWrappedDispatchModule}. Don't use both, otherwise
+ * each request is measured twice.
+ * <p>Close the adapter when the application is stopped. This stops the
+ * background thread of asynchronous recording and unregisters the MBeans.
+ */
+@Provider
+public final class MicrometerDispatchAdapter
+    implements ResourceMethodDispatchAdapter, Closeable
+{
+    private final MicrometerWrapperFactory factory;
+
+    /**
+     * Creates an adapter with the default {@link Configuration}.
+     * @param meterRegistry the registry of the timers.
+     */
+    public MicrometerDispatchAdapter(
+        MeterRegistry meterRegistry
+    ) {
+        this(meterRegistry, new Configuration());
+    }
+
+    /**
+     * Creates an adapter.
+     * @param meterRegistry the registry of the timers.
+     * @param configuration the configuration of the timers.
+     */
+    public MicrometerDispatchAdapter(
+        MeterRegistry meterRegistry,
+        Configuration configuration
+    ) {
+        this(meterRegistry, configuration, null);
+    }
+
+    /**
+     * Creates an adapter that notifies a listener about SLA breaches.
+     * @param meterRegistry the registry of the timers.
+     * @param configuration the configuration of the timers.
+     * @param slaBreachListener the listener for SLA breaches. May be
+     *                          {@code null}.
+     * @see Configuration#withSlaAlert(double, java.time.Duration)
+     */
+    public MicrometerDispatchAdapter(
+        MeterRegistry meterRegistry,
+        Configuration configuration,
+        SlaBreachListener slaBreachListener
+    ) {
+        this.factory = new MicrometerWrapperFactory(
+            configuration,
+            meterRegistry
+        );
+        factory.setSlaBreachListener(slaBreachListener);
+    }
+
+    /**
+     * Returns the slowest recent requests of all resource methods.
+     * @return the slowest recent requests, the slowest request first. The
+     * list is empty if the slow request log is not enabled.
+     * @see Configuration#withSlowRequestLog(int, java.time.Duration)
+     */
+    public List<SlowRequest> getSlowestRequests() {
+        SlowRequestsMXBean slowRequests = factory.slowRequests();
+        if (slowRequests == null) {
+            return Collections.emptyList();
+        } else {
+            return slowRequests.getSlowestRequests();
+        }
+    }
+
+    /**
+     * Returns the control that changes the level of detail of the resource
+     * methods at runtime.
+     * @return the control or {@code null} if runtime control is not
+     * enabled.
+     * @see Configuration#withRuntimeControl()
+     */
+    public InstrumentationControlMXBean getInstrumentationControl() {
+        return factory.instrumentationControl();
+    }
+
+    /**
+     * Releases the resources of the adapter, e.g. the background thread of
+     * asynchronous recording and the MBeans.
+     * @see Configuration#withAsyncRecording(int)
+     */
+    @Override
+    public void close() {
+        factory.close();
+    }
+
+    @Override
+    public ResourceMethodDispatchProvider adapt(
+        ResourceMethodDispatchProvider provider
+    ) {
+        return method -> {
+            RequestDispatcher dispatcher = provider.create(method);
+            if (dispatcher == null) {
+                return null;
+            }
+            ResourceMethodDispatchWrapper wrapper
+                = factory.createDispatchWrapper(method);
+            if (wrapper == null) {
+                return dispatcher; //don't wrap invocation
+            }
+            //The chain is created once per resource method and not per
+            //request.
+            ResourceMethodDispatchWrapperChain chain = dispatcher::dispatch;
+            return (resource, context) -> wrapper.wrapDispatch(
+                resource,
+                context,
+                chain
+            );
+        };
+    }
+}
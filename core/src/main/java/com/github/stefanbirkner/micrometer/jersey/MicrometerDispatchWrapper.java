@@ -0,0 +1,211 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import com.palominolabs.jersey.dispatchwrapper.ResourceMethodDispatchWrapper;
+import com.palominolabs.jersey.dispatchwrapper.ResourceMethodDispatchWrapperChain;
+import com.sun.jersey.api.container.MappableContainerException;
+import com.sun.jersey.api.core.HttpContext;
+import io.micrometer.core.instrument.Clock;
+
+import javax.ws.rs.WebApplicationException;
+
+import static com.github.stefanbirkner.micrometer.jersey.StatusMeters.UNKNOWN_STATUS;
+
+/**
+ * Dispatch wrapper that measures the invocation of a single resource method.
+ * <p>The status is handled as a primitive {@code int} and no objects are
+ * created per request. Therefore the wrapper does not produce garbage even
+ * if the JIT compiler's escape analysis is not applied.
+ */
+final class MicrometerDispatchWrapper
+    implements ResourceMethodDispatchWrapper
+{
+    private final Clock clock;
+    private final EndpointResolver endpointResolver;
+
+    MicrometerDispatchWrapper(
+        Clock clock,
+        EndpointResolver endpointResolver
+    ) {
+        this.clock = clock;
+        this.endpointResolver = endpointResolver;
+    }
+
+    @Override
+    public void wrapDispatch(
+        Object resource,
+        HttpContext context,
+        ResourceMethodDispatchWrapperChain chain
+    ) {
+        Endpoint endpoint = endpointResolver.resolve(context);
+        if (endpoint == null) {
+            //switched off at runtime
+            chain.wrapDispatch(resource, context);
+            return;
+        }
+        //The adaptive shedding measures the cost of the instrumentation of
+        //a few requests. It is the time spent before and after the resource
+        //method.
+        boolean probe = endpoint.probe();
+        long probeStart = probe ? clock.monotonicTime() : 0L;
+        MeteredResponseWriter writer = endpoint.requestStarted(context);
+        //The clock is not read for requests that are not sampled.
+        boolean timed = probe || endpoint.sample();
+        long start = timed ? clock.monotonicTime() : 0L;
+        //Without a writer the request is recorded when the resource method
+        //returns.
+        boolean timedUntilCommit = writer != null
+            && endpoint.isTimedUntilCommit();
+        if (writer != null && endpoint.needsStart()) {
+            endpoint.rememberStart(writer, timed, start);
+        }
+        ResourceUsage usage = endpoint.resourceUsage();
+        long cpuTimeStart = usage == null ? 0L : usage.cpuTime();
+        long allocatedBytesStart = usage == null ? 0L : usage.allocatedBytes();
+        long probeCost = probe ? clock.monotonicTime() - probeStart : 0L;
+        try {
+            chain.wrapDispatch(resource, context);
+        } catch (Throwable e) {
+            long probeResumed = probe ? clock.monotonicTime() : 0L;
+            //Requests that fail are often the slow ones. Therefore they are
+            //recorded for every kind of exception and error.
+            if (timedUntilCommit) {
+                writer.forgetStart();
+            }
+            int status = recordFailure(
+                endpoint,
+                context,
+                timed,
+                probe,
+                start,
+                e
+            );
+            if (usage != null) {
+                usage.record(status, cpuTimeStart, allocatedBytesStart);
+            }
+            if (probe) {
+                endpoint.probeFinished(
+                    probeCost + clock.monotonicTime() - probeResumed
+                );
+            }
+            throw e;
+        } finally {
+            endpoint.requestFinished();
+        }
+        long probeResumed = probe ? clock.monotonicTime() : 0L;
+        if (usage != null) {
+            //The resource method has not necessarily set the final status
+            //of an asynchronous response, but its thread's work is done.
+            usage.record(
+                context.getResponse().getStatus(),
+                cpuTimeStart,
+                allocatedBytesStart
+            );
+        }
+        //Requests that are timed until the response is committed are
+        //recorded when the response is committed. This is not part of the
+        //probe.
+        if (!timedUntilCommit) {
+            record(
+                endpoint,
+                context,
+                timed,
+                probe,
+                start,
+                context.getResponse().getStatus()
+            );
+        }
+        if (probe) {
+            endpoint.probeFinished(
+                probeCost + clock.monotonicTime() - probeResumed
+            );
+        }
+    }
+
+    private void record(
+        Endpoint endpoint,
+        HttpContext context,
+        boolean timed,
+        boolean probe,
+        long start,
+        int status
+    ) {
+        record(
+            endpoint,
+            context,
+            endpoint.timers().forStatus(status),
+            timed,
+            probe,
+            start,
+            status
+        );
+        endpoint.recordRequestSize(context, status);
+    }
+
+    private int recordFailure(
+        Endpoint endpoint,
+        HttpContext context,
+        boolean timed,
+        boolean probe,
+        long start,
+        Throwable e
+    ) {
+        Throwable exception = exceptionThrownByResource(e);
+        int status = statusOf(exception);
+        record(
+            endpoint,
+            context,
+            endpoint.timers().forFailure(status, exception),
+            timed,
+            probe,
+            start,
+            status
+        );
+        endpoint.recordRequestSize(context, status);
+        return status;
+    }
+
+    private void record(
+        Endpoint endpoint,
+        HttpContext context,
+        RequestTimer timer,
+        boolean timed,
+        boolean probe,
+        long start,
+        int status
+    ) {
+        if (timed) {
+            long now = clock.monotonicTime();
+            long duration = now - start;
+            if (probe) {
+                timer.recordProbe(duration);
+            } else {
+                timer.record(duration);
+            }
+            endpoint.durationRecorded(context, status, duration, now);
+        } else {
+            timer.countUntimed();
+        }
+    }
+
+    private Throwable exceptionThrownByResource(
+        Throwable e
+    ) {
+        if (e instanceof MappableContainerException && e.getCause() != null) {
+            return e.getCause();
+        } else {
+            return e;
+        }
+    }
+
+    private int statusOf(
+        Throwable exception
+    ) {
+        if (exception instanceof WebApplicationException) {
+            return ((WebApplicationException) exception)
+                .getResponse()
+                .getStatus();
+        } else {
+            return UNKNOWN_STATUS;
+        }
+    }
+}
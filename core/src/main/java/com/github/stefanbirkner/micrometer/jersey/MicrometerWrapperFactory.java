@@ -0,0 +1,535 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import com.google.inject.Inject;
+import com.palominolabs.jersey.dispatchwrapper.ResourceMethodDispatchWrapper;
+import com.palominolabs.jersey.dispatchwrapper.ResourceMethodDispatchWrapperFactory;
+import com.sun.jersey.api.model.AbstractResourceMethod;
+import com.sun.jersey.api.model.AbstractSubResourceMethod;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.noop.NoopDistributionSummary;
+
+import javax.management.ObjectName;
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Factory for dispatch wrappers that wrap request invocation to get timing info.
+ * <p>The factory must be closed when the application is stopped. This stops
+ * the background thread of asynchronous recording and unregisters the
+ * MBeans.
+ */
+final class MicrometerWrapperFactory
+    implements ResourceMethodDispatchWrapperFactory, Closeable
+{
+    private static final String COMPLETE_TIMER_NAME
+        = StatusTimers.NAME + ".complete";
+    private static final String ACTIVE_REQUESTS_NAME
+        = StatusTimers.NAME + ".active";
+
+    private final Configuration configuration;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final ResourceMethodSupport support;
+    private final StatusTags statusTags;
+    private final ExceptionTags exceptionTags;
+    private final Timer initTimer;
+    private final AdaptiveShedding shedding;
+    private final AsyncRecorder asyncRecorder;
+    private final SlowRequestLog slowRequestLog;
+    private final InstrumentationControl instrumentationControl;
+    private final List<ObjectName> mbeans = new ArrayList<>();
+    private SlaBreachListener slaBreachListener;
+    //Function meters and gauges are bound to the object that they observe.
+    //Registering one with the same tags again returns the first meter, so
+    //resource methods with the same tags have to share these objects.
+    private final ConcurrentMap<Tags, LongAdder> activeRequests
+        = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Tags, AdaptiveRequestTimer.Meters>
+        adaptiveMeters = new ConcurrentHashMap<>();
+
+    @Inject
+    MicrometerWrapperFactory(
+        Configuration configuration,
+        @JerseyResourceMicrometer MeterRegistry meterRegistry
+    ) {
+        this.configuration = configuration;
+        this.meterRegistry = meterRegistry;
+        this.clock = meterRegistry.config().clock();
+        this.support = new ResourceMethodSupport(configuration, meterRegistry);
+        this.statusTags = StatusTags.of(configuration);
+        this.exceptionTags = ExceptionTags.of(configuration);
+        this.initTimer = configuration.isEagerRegistration()
+            ? Timer.builder("jersey.micrometer.init")
+                .description("Time for creating the dispatch wrappers")
+                .register(meterRegistry)
+            : null;
+        this.shedding = adaptiveShedding(configuration, clock);
+        if (shedding != null) {
+            shedding.registerGauge(meterRegistry);
+        }
+        this.asyncRecorder = configuration.getAsyncQueueCapacity() > 0
+            ? new AsyncRecorder(
+                meterRegistry,
+                configuration.getAsyncQueueCapacity()
+            )
+            : null;
+        this.slowRequestLog = slowRequestLog(configuration, clock);
+        if (slowRequestLog != null) {
+            mbeans.add(slowRequestLog.registerMBean());
+        }
+        this.instrumentationControl = configuration.isRuntimeControlled()
+            ? new InstrumentationControl()
+            : null;
+        if (instrumentationControl != null) {
+            mbeans.add(instrumentationControl.registerMBean());
+        }
+    }
+
+    /**
+     * Releases the resources of the factory. The requests are not recorded
+     * anymore if asynchronous recording is used, and the MBeans are
+     * unregistered.
+     */
+    @Override
+    public void close() {
+        if (asyncRecorder != null) {
+            asyncRecorder.close();
+        }
+        for (ObjectName mbean : mbeans) {
+            MBeans.unregister(mbean);
+        }
+    }
+
+    private static SlowRequestLog slowRequestLog(
+        Configuration configuration,
+        Clock clock
+    ) {
+        if (configuration.getSlowRequestLogSize() == 0) {
+            return null;
+        }
+        return new SlowRequestLog(
+            configuration.getSlowRequestLogSize(),
+            configuration.getSlowRequestLogWindow().toNanos(),
+            clock
+        );
+    }
+
+    @Inject(optional = true)
+    void setSlaBreachListener(
+        @JerseyResourceMicrometer SlaBreachListener slaBreachListener
+    ) {
+        this.slaBreachListener = slaBreachListener;
+    }
+
+    /**
+     * Returns the control of the instrumentation levels.
+     * @return the control or {@code null} if runtime control is not
+     * enabled.
+     */
+    InstrumentationControlMXBean instrumentationControl() {
+        return instrumentationControl;
+    }
+
+    /**
+     * Returns the slow request log.
+     * @return the slow request log or {@code null} if it is not enabled.
+     */
+    SlowRequestsMXBean slowRequests() {
+        return slowRequestLog;
+    }
+
+    private static AdaptiveShedding adaptiveShedding(
+        Configuration configuration,
+        Clock clock
+    ) {
+        Duration costLimit = configuration.getRecordingCostLimit();
+        if (costLimit == null) {
+            return null;
+        } else {
+            return new AdaptiveShedding(clock, costLimit.toNanos());
+        }
+    }
+
+    @Override
+    public ResourceMethodDispatchWrapper createDispatchWrapper(
+        AbstractResourceMethod am
+    ) {
+        long start = clock.monotonicTime();
+        try {
+            ResourceMetrics annotation = annotation(am);
+            if (support.enabled(annotation)) {
+                return recordStatistics(
+                    am,
+                    annotation,
+                    InstrumentationLevel.FULL
+                );
+            } else if (instrumentationControl != null) {
+                //may be switched on at runtime
+                return recordStatistics(
+                    am,
+                    annotation,
+                    InstrumentationLevel.OFF
+                );
+            } else {
+                return null; //don't wrap invocation
+            }
+        } finally {
+            if (initTimer != null) {
+                initTimer.record(clock.monotonicTime() - start, NANOSECONDS);
+            }
+        }
+    }
+
+    private ResourceMethodDispatchWrapper recordStatistics(
+        AbstractResourceMethod method,
+        ResourceMetrics annotation,
+        InstrumentationLevel initialLevel
+    ) {
+        DistributionSettings distributionSettings = DistributionSettings.of(
+            configuration,
+            annotation
+        );
+        int sampleRate = support.sampleRate(annotation);
+        boolean resourceUsageRecorded = resourceUsageRecorded(annotation);
+        Duration sla = sla(annotation);
+        String httpMethod = method.getHttpMethod();
+        BiFunction<String, InstrumentationSwitch, Endpoint> endpointForUri
+            = (uri, instrumentationSwitch) -> createEndpoint(
+                support.tags(httpMethod, uri),
+                distributionSettings,
+                sampleRate,
+                resourceUsageRecorded,
+                sla,
+                instrumentationSwitch
+            );
+        EndpointResolver resolver;
+        if (method.getResource().isRootResource()) {
+            resolver = endpointResolver(
+                httpMethod,
+                uri(method),
+                initialLevel,
+                endpointForUri,
+                configuration.isEagerRegistration()
+            );
+        } else {
+            //The path of a sub-resource depends on the sub-resource locators
+            //that have been used for reaching it.
+            resolver = new SubResourceEndpointResolver(
+                uri -> endpointResolver(
+                    httpMethod,
+                    uri,
+                    initialLevel,
+                    endpointForUri,
+                    false
+                )
+            );
+        }
+        return new MicrometerDispatchWrapper(clock, resolver);
+    }
+
+    private EndpointResolver endpointResolver(
+        String httpMethod,
+        String uri,
+        InstrumentationLevel initialLevel,
+        BiFunction<String, InstrumentationSwitch, Endpoint> endpointForUri,
+        boolean eagerRegistration
+    ) {
+        if (instrumentationControl == null) {
+            Endpoint endpoint = endpointForUri.apply(uri, null);
+            if (eagerRegistration) {
+                endpoint.timers().forStatus(200);
+            }
+            return EndpointResolver.fixed(endpoint);
+        }
+        //The switch is keyed by the original uri, so that methods that are
+        //switched off don't count towards the cardinality limits.
+        InstrumentationSwitch instrumentationSwitch
+            = instrumentationControl.switchFor(
+                TagsPool.SHARED.tagsFor(httpMethod, uri),
+                initialLevel
+            );
+        SwitchedEndpointResolver resolver = new SwitchedEndpointResolver(
+            instrumentationSwitch,
+            () -> endpointForUri.apply(uri, instrumentationSwitch)
+        );
+        //Methods that are switched off don't register any meter.
+        if (eagerRegistration && !instrumentationSwitch.isOff()) {
+            resolver.endpoint().timers().forStatus(200);
+        }
+        return resolver;
+    }
+
+    private boolean resourceUsageRecorded(
+        ResourceMetrics annotation
+    ) {
+        if (annotation == null) {
+            return configuration.isResourceUsageRecorded();
+        }
+        switch (annotation.resourceUsage()) {
+            case ENABLED:
+                return true;
+            case DISABLED:
+                return false;
+            default:
+                return configuration.isResourceUsageRecorded();
+        }
+    }
+
+    private Duration sla(
+        ResourceMetrics annotation
+    ) {
+        if (annotation == null || annotation.sla().isEmpty()) {
+            return null;
+        } else {
+            return Durations.parse(annotation.sla());
+        }
+    }
+
+    private Function<Tags, RequestTimer> timerRegistration(
+        DistributionSettings distributionSettings,
+        int sampleRate,
+        InstrumentationSwitch instrumentationSwitch
+    ) {
+        Function<Tags, RequestTimer> registration = synchronousRegistration(
+            distributionSettings,
+            sampleRate,
+            instrumentationSwitch
+        );
+        if (asyncRecorder != null) {
+            registration = registration.andThen(asyncRecorder::wrap);
+        }
+        return support.limited(StatusTimers.NAME, registration);
+    }
+
+    private Function<Tags, RequestTimer> synchronousRegistration(
+        DistributionSettings distributionSettings,
+        int sampleRate,
+        InstrumentationSwitch instrumentationSwitch
+    ) {
+        if (sampleRate == 1
+            && (shedding != null || instrumentationSwitch != null)) {
+            return tags -> new AdaptiveRequestTimer(
+                adaptiveMeters.computeIfAbsent(
+                    tags,
+                    key -> new AdaptiveRequestTimer.Meters(
+                        meterRegistry,
+                        key,
+                        distributionSettings
+                    )
+                ),
+                shedding,
+                instrumentationSwitch
+            );
+        } else {
+            return support.timerRegistration(distributionSettings, sampleRate);
+        }
+    }
+
+    private Endpoint createEndpoint(
+        Tags tags,
+        DistributionSettings distributionSettings,
+        int sampleRate,
+        boolean resourceUsageRecorded,
+        Duration sla,
+        InstrumentationSwitch instrumentationSwitch
+    ) {
+        StatusTimers timers = new StatusTimers(
+            tags,
+            statusTags,
+            exceptionTags,
+            timerRegistration(
+                distributionSettings,
+                sampleRate,
+                instrumentationSwitch
+            )
+        );
+        return Endpoint.builder(timers, clock)
+            .completeTimers(
+                completeTimers(tags, distributionSettings, sampleRate)
+            )
+            .sampleRate(sampleRate)
+            //Sampled methods are cheap already and are not shed.
+            .shedding(sampleRate == 1 ? shedding : null)
+            .activeRequests(activeRequests(tags))
+            .requestSizes(payloadSizes("http.server.requests.size", tags))
+            .responseSizes(payloadSizes("http.server.responses.size", tags))
+            .resourceUsage(
+                resourceUsageRecorded
+                    ? new ResourceUsage(
+                        meterRegistry,
+                        tags,
+                        statusTags,
+                        support::admitted
+                    )
+                    : null
+            )
+            .slowestRequests(
+                slowRequestLog == null
+                    ? null
+                    : slowRequestLog.forEndpoint(tags)
+            )
+            .slaMonitor(sla == null ? null : slaMonitor(tags, sla))
+            .instrumentationSwitch(instrumentationSwitch)
+            .timedUntilCommit(configuration.isAsyncTiming())
+            .build();
+    }
+
+    private SlaMonitor slaMonitor(
+        Tags tags,
+        Duration sla
+    ) {
+        return new SlaMonitor(
+            meterRegistry,
+            tags,
+            sla,
+            slaBreachListener,
+            configuration.getMaximumSlaBreachRate(),
+            configuration.getSlaAlertWindow(),
+            clock.monotonicTime()
+        );
+    }
+
+    private StatusTimers completeTimers(
+        Tags tags,
+        DistributionSettings distributionSettings,
+        int sampleRate
+    ) {
+        if (!configuration.isCompleteResponseTimed()) {
+            return null;
+        }
+        //The exception is not known when the response is finished.
+        return new StatusTimers(
+            tags,
+            statusTags,
+            ExceptionTags.DISABLED,
+            support.limited(
+                COMPLETE_TIMER_NAME,
+                support.timerRegistration(
+                    COMPLETE_TIMER_NAME,
+                    distributionSettings,
+                    sampleRate
+                )
+            )
+        );
+    }
+
+    private LongAdder activeRequests(
+        Tags tags
+    ) {
+        if (!configuration.isActiveRequestsTracked()) {
+            return null;
+        }
+        return activeRequests.computeIfAbsent(tags, this::registerGauge);
+    }
+
+    private LongAdder registerGauge(
+        Tags tags
+    ) {
+        if (!support.admitted(ACTIVE_REQUESTS_NAME, tags)) {
+            return null; //the requests are not tracked
+        }
+        //A LongAdder is striped across cells so that concurrent requests
+        //don't contend on a single counter.
+        LongAdder activeRequests = new LongAdder();
+        Gauge.builder(
+                ACTIVE_REQUESTS_NAME,
+                activeRequests,
+                LongAdder::sum
+            )
+            .tags(tags)
+            .description("Number of requests that are currently executed")
+            .strongReference(true)
+            .register(meterRegistry);
+        return activeRequests;
+    }
+
+    private StatusMeters<DistributionSummary> payloadSizes(
+        String name,
+        Tags tags
+    ) {
+        if (!configuration.isPayloadSizesRecorded()) {
+            return null;
+        }
+        return new StatusMeters<>(
+            status -> {
+                Tags meterTags = tags.and(statusTags.forStatus(status));
+                if (!support.admitted(name, meterTags)) {
+                    return new NoopDistributionSummary(
+                        new Meter.Id(
+                            name,
+                            meterTags,
+                            "bytes",
+                            null,
+                            Meter.Type.DISTRIBUTION_SUMMARY
+                        )
+                    );
+                }
+                return DistributionSummary.builder(name)
+                    .baseUnit("bytes")
+                    .tags(meterTags)
+                    .register(meterRegistry);
+            }
+        );
+    }
+
+    /**
+     * Returns the {@code ResourceMetrics} annotation of the method or, if the
+     * method is not annotated, of its class.
+     */
+    private ResourceMetrics annotation(
+        AbstractResourceMethod method
+    ) {
+        ResourceMetrics annotation = method.getAnnotation(
+            ResourceMetrics.class
+        );
+        if (annotation == null) {
+            annotation = method.getResource().getAnnotation(
+                ResourceMetrics.class
+            );
+        }
+        if (annotation == null) {
+            // Make it work if the resource class is enhanced by guice
+            annotation = method.getResource()
+                .getResourceClass()
+                .getSuperclass()
+                .getAnnotation(ResourceMetrics.class);
+        }
+        return annotation;
+    }
+
+    private String uri(
+        AbstractResourceMethod method
+    ) {
+        String resourcePath = method.getResource().getPath() == null
+            ? null
+            : method.getResource().getPath().getValue();
+        if (method instanceof AbstractSubResourceMethod) {
+            //if this is a sub resource, add on its path component
+            AbstractSubResourceMethod asrm = (AbstractSubResourceMethod) method;
+            return ResourceMethodSupport.uri(
+                Arrays.asList(resourcePath, asrm.getPath().getValue())
+            );
+        } else {
+            return ResourceMethodSupport.uri(
+                Collections.singletonList(resourcePath)
+            );
+        }
+    }
+}
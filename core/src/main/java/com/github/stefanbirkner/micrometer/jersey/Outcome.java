@@ -0,0 +1,32 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+/**
+ * The outcome of a request. The values are the same like Spring Boot's
+ * because it makes it easier to build cross-application dashboards.
+ */
+enum Outcome {
+    INFORMATIONAL,
+    SUCCESS,
+    REDIRECTION,
+    CLIENT_ERROR,
+    SERVER_ERROR,
+    UNKNOWN;
+
+    static Outcome forStatus(
+        int status
+    ) {
+        if (status >= 100 && status < 200) {
+            return INFORMATIONAL;
+        } else if (status >= 200 && status < 300) {
+            return SUCCESS;
+        } else if (status >= 300 && status < 400) {
+            return REDIRECTION;
+        } else if (status >= 400 && status < 500) {
+            return CLIENT_ERROR;
+        } else if (status >= 500 && status < 600) {
+            return SERVER_ERROR;
+        } else {
+            return UNKNOWN;
+        }
+    }
+}
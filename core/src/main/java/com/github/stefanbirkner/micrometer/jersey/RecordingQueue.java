@@ -0,0 +1,116 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded lock-free queue of recording events for many producers and a
+ * single consumer. An event is a pair of a timer index and a value. The
+ * events are stored in primitive arrays, so offering an event does not
+ * allocate.
+ * <p>This is Dmitry Vyukov's bounded MPMC queue restricted to a single
+ * consumer: each slot has a sequence number that tells producers and the
+ * consumer whether the slot is free or holds an event. Producers only
+ * contend on the tail counter and never wait for each other. If the queue
+ * is full then {@link #offer(int, long)} returns {@code false} immediately.
+ */
+final class RecordingQueue {
+    private final int mask;
+    private final int[] indexes;
+    private final long[] values;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private long head = 0; //only accessed by the consumer
+
+    /**
+     * Creates a queue.
+     * @param capacity the minimum capacity. It is rounded up to the next
+     *                 power of two.
+     */
+    RecordingQueue(
+        int capacity
+    ) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.mask = size - 1;
+        this.indexes = new int[size];
+        this.values = new long[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; ++i) {
+            sequences.set(i, i);
+        }
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Adds an event to the queue unless it is full.
+     * @param index the index of the timer.
+     * @param value the value that is recorded.
+     * @return {@code true} iff the event has been added.
+     */
+    boolean offer(
+        int index,
+        long value
+    ) {
+        long position = tail.get();
+        while (true) {
+            int slot = (int) (position & mask);
+            long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    indexes[slot] = index;
+                    values[slot] = value;
+                    //publishes the event to the consumer
+                    sequences.lazySet(slot, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false; //full
+            } else {
+                //another producer has taken the slot
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Removes the events from the queue and passes them to the consumer.
+     * Must only be called by a single thread.
+     * @param consumer the consumer of the events.
+     * @param maxEvents the maximum number of events that are removed.
+     * @return the number of events that have been removed.
+     */
+    int drain(
+        EventConsumer consumer,
+        int maxEvents
+    ) {
+        int drained = 0;
+        while (drained < maxEvents) {
+            int slot = (int) (head & mask);
+            if (sequences.get(slot) != head + 1) {
+                break; //empty
+            }
+            int index = indexes[slot];
+            long value = values[slot];
+            //frees the slot for the producers
+            sequences.lazySet(slot, head + mask + 1);
+            ++head;
+            consumer.accept(index, value);
+            ++drained;
+        }
+        return drained;
+    }
+
+    /**
+     * Consumer of the events of a {@link RecordingQueue}.
+     */
+    interface EventConsumer {
+        void accept(
+            int index,
+            long value
+        );
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+/**
+ * Records the requests of a single resource method and status.
+ */
+interface RequestTimer {
+    /**
+     * A timer that does not record anything. It is used instead of timers
+     * that have been denied by the {@link UriCardinalityFilter}.
+     */
+    RequestTimer DENIED = new RequestTimer() {
+        @Override
+        public void record(
+            long durationNanos
+        ) {
+        }
+
+        @Override
+        public void countUntimed() {
+        }
+    };
+
+    /**
+     * Records a request that has been timed.
+     * @param durationNanos the duration of the request in nanoseconds.
+     */
+    void record(
+        long durationNanos
+    );
+
+    /**
+     * Records a request whose cost of instrumentation is measured by the
+     * {@link AdaptiveShedding}. Its detail is not reduced by the shedding,
+     * because otherwise the cost of a full recording could not be observed
+     * after the detail has been reduced.
+     * @param durationNanos the duration of the request in nanoseconds.
+     */
+    default void recordProbe(
+        long durationNanos
+    ) {
+        record(durationNanos);
+    }
+
+    /**
+     * Records a request that has not been timed because it has not been
+     * sampled.
+     */
+    void countUntimed();
+}
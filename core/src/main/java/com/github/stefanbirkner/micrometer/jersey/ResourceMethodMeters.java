@@ -0,0 +1,80 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The timers of a single resource method and {@code uri} for integrations
+ * with other frameworks than Jersey 1. They are created by the
+ * {@link ResourceMethodMetersFactory}.
+ * <p>The timers are cached per status, so recording a request needs
+ * neither a lookup in the registry nor any allocation.
+ */
+public final class ResourceMethodMeters {
+    /**
+     * Placeholder for the status of a request whose status could not be
+     * determined.
+     */
+    public static final int UNKNOWN_STATUS = StatusMeters.UNKNOWN_STATUS;
+
+    private final StatusTimers timers;
+    private final int sampleRate;
+
+    ResourceMethodMeters(
+        StatusTimers timers,
+        int sampleRate
+    ) {
+        this.timers = timers;
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Decides whether the current request is timed. Requests that are not
+     * timed must be counted by {@link #countUntimed(int, Throwable)}.
+     * @return {@code true} iff the current request is timed.
+     */
+    public boolean sample() {
+        //ThreadLocalRandom has no shared state and therefore the decision
+        //does not cause contention between the request threads.
+        return sampleRate == 1
+            || ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+    }
+
+    /**
+     * Records a request that has been timed.
+     * @param status the status of the response or {@link #UNKNOWN_STATUS}.
+     * @param exception the exception that has been thrown by the resource
+     *                  method or {@code null} if it returned normally.
+     * @param durationNanos the duration of the request in nanoseconds.
+     */
+    public void record(
+        int status,
+        Throwable exception,
+        long durationNanos
+    ) {
+        timer(status, exception).record(durationNanos);
+    }
+
+    /**
+     * Counts a request that has not been timed because of sampling.
+     * @param status the status of the response or {@link #UNKNOWN_STATUS}.
+     * @param exception the exception that has been thrown by the resource
+     *                  method or {@code null} if it returned normally.
+     */
+    public void countUntimed(
+        int status,
+        Throwable exception
+    ) {
+        timer(status, exception).countUntimed();
+    }
+
+    private RequestTimer timer(
+        int status,
+        Throwable exception
+    ) {
+        if (exception == null) {
+            return timers.forStatus(status);
+        } else {
+            return timers.forFailure(status, exception);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates the {@link ResourceMethodMeters} of resource methods for
+ * integrations with other frameworks than Jersey 1, e.g. the Jersey 2
+ * module. The {@link Configuration} and the {@link ResourceMetrics}
+ * annotations are applied like by the Jersey 1 integration, so the
+ * integrations publish the same timers.
+ * <p>The factory supports the timers, their tags, sampling, striped timers,
+ * eager registration and the limits of the number of uris and meters. The
+ * other options of the {@code Configuration} and the annotation need the
+ * dispatch wrapper of the Jersey 1 integration. The factory does not
+ * accept them, because they would silently have no effect.
+ */
+public final class ResourceMethodMetersFactory {
+    private final Configuration configuration;
+    private final StatusTags statusTags;
+    private final ExceptionTags exceptionTags;
+    private final ResourceMethodSupport support;
+
+    /**
+     * Creates a factory.
+     * @param meterRegistry the registry of the timers.
+     * @param configuration the configuration of the timers.
+     * @throws IllegalArgumentException if the configuration has an option
+     * that is not supported by the factory.
+     */
+    public ResourceMethodMetersFactory(
+        MeterRegistry meterRegistry,
+        Configuration configuration
+    ) {
+        checkSupported(configuration);
+        this.configuration = configuration;
+        this.statusTags = StatusTags.of(configuration);
+        this.exceptionTags = ExceptionTags.of(configuration);
+        this.support = new ResourceMethodSupport(configuration, meterRegistry);
+    }
+
+    private static void checkSupported(
+        Configuration configuration
+    ) {
+        List<String> unsupported = new ArrayList<>();
+        if (configuration.isActiveRequestsTracked()) {
+            unsupported.add("active requests");
+        }
+        if (configuration.isPayloadSizesRecorded()) {
+            unsupported.add("payload sizes");
+        }
+        if (configuration.getRecordingCostLimit() != null) {
+            unsupported.add("adaptive shedding");
+        }
+        if (configuration.getAsyncQueueCapacity() > 0) {
+            unsupported.add("asynchronous recording");
+        }
+        if (configuration.isAsyncTiming()) {
+            unsupported.add("asynchronous timing");
+        }
+        if (configuration.isCompleteResponseTimed()) {
+            unsupported.add("complete response timer");
+        }
+        if (configuration.isResourceUsageRecorded()) {
+            unsupported.add("resource usage");
+        }
+        if (configuration.getSlowRequestLogSize() > 0) {
+            unsupported.add("slow request log");
+        }
+        if (configuration.getSlaAlertWindow() != null) {
+            unsupported.add("SLA alert");
+        }
+        if (configuration.isRuntimeControlled()) {
+            unsupported.add("runtime control");
+        }
+        if (!unsupported.isEmpty()) {
+            throw new IllegalArgumentException(
+                "The configuration has options that are only supported by"
+                    + " the Jersey 1 integration: " + unsupported + "."
+            );
+        }
+    }
+
+    /**
+     * Builds the value of the tag {@code uri} of a resource method the same
+     * way as the Jersey 1 integration does.
+     * @param templates the path templates of the resources and the resource
+     *                  method, starting with the root resource. The slashes
+     *                  around a template are optional and a template may be
+     *                  {@code null}.
+     * @return the value of the tag {@code uri}, e.g. {@code "/users/{id}"}.
+     */
+    public static String uri(
+        List<String> templates
+    ) {
+        return ResourceMethodSupport.uri(templates);
+    }
+
+    /**
+     * Creates the meters of a resource method.
+     * @param httpMethod the HTTP method of the resource method.
+     * @param uri the uri of the resource method, e.g. {@code "/users/{id}"}.
+     * @param annotation the annotation of the method or, if the method is
+     *                   not annotated, of its class. May be {@code null}.
+     * @return the meters of the resource method or {@code null} if the
+     * resource method is not measured.
+     * @throws IllegalArgumentException if the annotation has an option that
+     * is not supported by the factory.
+     */
+    public ResourceMethodMeters create(
+        String httpMethod,
+        String uri,
+        ResourceMetrics annotation
+    ) {
+        if (!support.enabled(annotation)) {
+            return null;
+        }
+        checkSupported(annotation, httpMethod, uri);
+        DistributionSettings distributionSettings = DistributionSettings.of(
+            configuration,
+            annotation
+        );
+        int sampleRate = support.sampleRate(annotation);
+        StatusTimers timers = new StatusTimers(
+            support.tags(httpMethod, uri),
+            statusTags,
+            exceptionTags,
+            support.limited(
+                StatusTimers.NAME,
+                support.timerRegistration(distributionSettings, sampleRate)
+            )
+        );
+        if (configuration.isEagerRegistration()) {
+            timers.forStatus(200);
+        }
+        return new ResourceMethodMeters(timers, sampleRate);
+    }
+
+    private static void checkSupported(
+        ResourceMetrics annotation,
+        String httpMethod,
+        String uri
+    ) {
+        if (annotation == null) {
+            return;
+        }
+        if (!annotation.sla().isEmpty()) {
+            throw new IllegalArgumentException(
+                "The SLA of " + httpMethod + " " + uri
+                    + " is only supported by the Jersey 1 integration."
+            );
+        }
+        if (annotation.resourceUsage() == ResourceMetrics.Setting.ENABLED) {
+            throw new IllegalArgumentException(
+                "The resource usage of " + httpMethod + " " + uri
+                    + " is only supported by the Jersey 1 integration."
+            );
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Singleton;
+
+import java.io.Closeable;
+
+import static com.palominolabs.jersey.dispatchwrapper.ResourceMethodWrappedDispatchModule.bindWrapperFactory;
+
+/**
+ * Binds the factory of the dispatch wrappers. The resources of the factory,
+ * e.g. the background thread of asynchronous recording, are released by the
+ * {@code Closeable} that is bound with the annotation
+ * {@link JerseyResourceMicrometer}.
+ * <pre>
+ * injector.getInstance(
+ *     Key.get(Closeable.class, JerseyResourceMicrometer.class)
+ * ).close();
+ * </pre>
+ */
+public final class ResourceMethodMicrometerModule
+    extends AbstractModule
+{
+    @Override
+    protected void configure() {
+        bind(MicrometerWrapperFactory.class).in(Singleton.class);
+        bind(Closeable.class)
+            .annotatedWith(JerseyResourceMicrometer.class)
+            .to(MicrometerWrapperFactory.class);
+        bindWrapperFactory(binder(), MicrometerWrapperFactory.class);
+    }
+}
@@ -0,0 +1,240 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * The part of the instrumentation of resource methods that is shared by the
+ * Jersey 1 integration ({@link MicrometerWrapperFactory}) and the
+ * {@link ResourceMethodMetersFactory} for other frameworks. It applies the
+ * {@link Configuration} and the {@link ResourceMetrics} annotations, builds
+ * the tags of a resource method including the cardinality limits and
+ * registers the timers.
+ */
+final class ResourceMethodSupport {
+    private final Configuration configuration;
+    private final MeterRegistry meterRegistry;
+    private final UriCardinalityFilter cardinalityFilter;
+    //Function meters and gauges are bound to the object that they observe.
+    //Registering one with the same tags again returns the first meter, so
+    //resource methods with the same tags have to share these objects.
+    private final ConcurrentMap<String, ConcurrentMap<Tags, SampledRequestTimer>>
+        sampledTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Tags, StripedRequestTimer> stripedTimers
+        = new ConcurrentHashMap<>();
+
+    ResourceMethodSupport(
+        Configuration configuration,
+        MeterRegistry meterRegistry
+    ) {
+        this.configuration = configuration;
+        this.meterRegistry = meterRegistry;
+        this.cardinalityFilter = cardinalityFilter(
+            configuration,
+            meterRegistry
+        );
+    }
+
+    private static UriCardinalityFilter cardinalityFilter(
+        Configuration configuration,
+        MeterRegistry meterRegistry
+    ) {
+        if (configuration.getMaximumUris() == Integer.MAX_VALUE
+            && configuration.getMaximumMeters() == Integer.MAX_VALUE) {
+            return null;
+        }
+        //The filter is not added to the registry because it could not be
+        //removed when the application is stopped and it would affect the
+        //meters of other libraries. It is applied to the meters of the
+        //resource methods before they are registered.
+        UriCardinalityFilter filter = new UriCardinalityFilter(
+            configuration.getMaximumUris(),
+            configuration.getMaximumMeters()
+        );
+        filter.registerRejectedMetersCounter(meterRegistry);
+        return filter;
+    }
+
+    boolean enabled(
+        ResourceMetrics annotation
+    ) {
+        if (annotation == null) {
+            return configuration.isEnabledByDefault();
+        } else {
+            return annotation.enabled();
+        }
+    }
+
+    int sampleRate(
+        ResourceMetrics annotation
+    ) {
+        if (annotation == null || annotation.sampleRate() == 0) {
+            return configuration.getSampleRate();
+        } else if (annotation.sampleRate() < 0) {
+            throw new IllegalArgumentException(
+                "The sample rate " + annotation.sampleRate()
+                    + " is not positive."
+            );
+        } else {
+            return annotation.sampleRate();
+        }
+    }
+
+    /**
+     * Returns the tags of a resource method.
+     * @param httpMethod the HTTP method of the resource method.
+     * @param uri the uri of the resource method.
+     * @return the tags {@code method} and {@code uri}. The {@code uri} is
+     * replaced if the maximum number of values has been reached.
+     */
+    Tags tags(
+        String httpMethod,
+        String uri
+    ) {
+        //The uri is replaced before the meters are created. Otherwise the
+        //methods whose uri is replaced would register function meters with
+        //the same id and only the first one would be published.
+        return TagsPool.SHARED.tagsFor(
+            httpMethod,
+            cardinalityFilter == null ? uri : cardinalityFilter.uriFor(uri)
+        );
+    }
+
+    /**
+     * Decides whether a meter of a resource method may be registered.
+     * @param name the name of the meter.
+     * @param tags the tags of the meter.
+     * @return {@code true} iff the meter may be registered.
+     */
+    boolean admitted(
+        String name,
+        Tags tags
+    ) {
+        return cardinalityFilter == null || cardinalityFilter.admit(name, tags);
+    }
+
+    /**
+     * Applies the limit of the number of meters to a registration of
+     * timers.
+     * @param name the name of the timers.
+     * @param registration the registration.
+     * @return a registration that returns {@link RequestTimer#DENIED} for
+     * timers that exceed the limit.
+     */
+    Function<Tags, RequestTimer> limited(
+        String name,
+        Function<Tags, RequestTimer> registration
+    ) {
+        if (cardinalityFilter == null) {
+            return registration;
+        }
+        return tags -> admitted(name, tags)
+            ? registration.apply(tags)
+            : RequestTimer.DENIED;
+    }
+
+    /**
+     * Returns the registration of the timers {@code http.server.requests}.
+     * They are striped if the {@code Configuration} says so and the requests
+     * are not sampled.
+     * @param distributionSettings the settings of the histograms.
+     * @param sampleRate the sample rate of the resource method.
+     * @return the registration.
+     */
+    Function<Tags, RequestTimer> timerRegistration(
+        DistributionSettings distributionSettings,
+        int sampleRate
+    ) {
+        if (sampleRate == 1 && configuration.isStripedTimers()) {
+            return tags -> stripedTimers.computeIfAbsent(
+                tags,
+                key -> StripedRequestTimer.register(
+                    meterRegistry,
+                    key,
+                    distributionSettings.percentiles()
+                )
+            );
+        } else {
+            return timerRegistration(
+                StatusTimers.NAME,
+                distributionSettings,
+                sampleRate
+            );
+        }
+    }
+
+    /**
+     * Returns the registration of timers that are either regular timers or,
+     * if the requests are sampled, {@link SampledRequestTimer
+     * SampledRequestTimers}.
+     * @param name the name of the timers.
+     * @param distributionSettings the settings of the histograms.
+     * @param sampleRate the sample rate of the resource method.
+     * @return the registration.
+     */
+    Function<Tags, RequestTimer> timerRegistration(
+        String name,
+        DistributionSettings distributionSettings,
+        int sampleRate
+    ) {
+        if (sampleRate == 1) {
+            return DirectRequestTimer.registeredIn(
+                name,
+                meterRegistry,
+                distributionSettings
+            );
+        }
+        ConcurrentMap<Tags, SampledRequestTimer> timers
+            = sampledTimers.computeIfAbsent(
+                name,
+                key -> new ConcurrentHashMap<>()
+            );
+        return tags -> timers.computeIfAbsent(
+            tags,
+            key -> SampledRequestTimer.register(
+                name,
+                meterRegistry,
+                key,
+                sampleRate,
+                distributionSettings
+            )
+        );
+    }
+
+    /**
+     * Builds the value of the tag {@code uri} from the path templates of
+     * the resources and the resource method.
+     * @param templates the templates, starting with the root resource. The
+     *                  slashes around a template are optional and a
+     *                  template may be {@code null}.
+     * @return the templates joined by slashes or {@code "_no path_"} if
+     * all templates are empty.
+     */
+    static String uri(
+        List<String> templates
+    ) {
+        StringBuilder uri = new StringBuilder();
+        for (String template: templates) {
+            if (template != null) {
+                int begin = template.startsWith("/") ? 1 : 0;
+                int end = template.endsWith("/")
+                    ? Math.max(begin, template.length() - 1)
+                    : template.length();
+                if (begin < end) {
+                    uri.append('/').append(template, begin, end);
+                }
+            }
+        }
+
+        if (uri.length() == 0) {
+            return "_no path_";
+        } else {
+            return uri.toString();
+        }
+    }
+}
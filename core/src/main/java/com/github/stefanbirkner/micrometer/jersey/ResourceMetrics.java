@@ -0,0 +1,91 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Configures the metrics of the annotated method (or all methods on the
+ * annotated class). Attributes that are not set fall back to the
+ * {@link Configuration}.
+ * <p>Durations are written like {@code "250ms"}, {@code "500us"},
+ * {@code "2s"} or as ISO-8601 durations like {@code "PT0.25S"}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface ResourceMetrics {
+
+    /**
+     * @return true if timing and request count should be measured for the
+     * annotated method (or all methods on the annotated class)
+     */
+    boolean enabled() default true;
+
+    /**
+     * @return whether the timers publish a percentile histogram.
+     * @see Configuration#withPercentileHistogram()
+     */
+    Setting publishPercentileHistogram() default Setting.DEFAULT;
+
+    /**
+     * @return the percentiles that are computed by the timers, e.g.
+     * {@code 0.95} and {@code 0.99}.
+     * @see Configuration#withPercentiles(double...)
+     */
+    double[] percentiles() default {};
+
+    /**
+     * @return the service level objectives that are published as histogram
+     * buckets by the timers, e.g. {@code "100ms"}.
+     * @see Configuration#withServiceLevelObjectives(java.time.Duration...)
+     */
+    String[] serviceLevelObjectives() default {};
+
+    /**
+     * @return the lower bound of the percentile histogram.
+     * @see Configuration#withMinimumExpectedValue(java.time.Duration)
+     */
+    String minimumExpectedValue() default "";
+
+    /**
+     * @return the upper bound of the percentile histogram.
+     * @see Configuration#withMaximumExpectedValue(java.time.Duration)
+     */
+    String maximumExpectedValue() default "";
+
+    /**
+     * @return only one in {@code sampleRate} requests is timed. {@code 1}
+     * means that every request is timed and {@code 0} falls back to the
+     * {@link Configuration}.
+     * @see Configuration#withSampleRate(int)
+     */
+    int sampleRate() default 0;
+
+    /**
+     * @return whether the CPU time and the allocated memory of the
+     * invocations are recorded.
+     * @see Configuration#withResourceUsage()
+     */
+    Setting resourceUsage() default Setting.DEFAULT;
+
+    /**
+     * @return the service level agreement of the annotated method, e.g.
+     * {@code "250ms"}. Requests that take longer are counted by
+     * {@code http.server.requests.sla.breaches}. An empty string means that
+     * there is no SLA.
+     * @see SlaBreachListener
+     * @see Configuration#withSlaAlert(double, java.time.Duration)
+     */
+    String sla() default "";
+
+    /**
+     * A switch that can be turned on or off or that falls back to the
+     * {@link Configuration}.
+     */
+    enum Setting {
+        DEFAULT,
+        ENABLED,
+        DISABLED
+    }
+}
@@ -0,0 +1,176 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.noop.NoopDistributionSummary;
+import io.micrometer.core.instrument.noop.NoopTimer;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.BiPredicate;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * The CPU time and the allocated memory of the invocations of a single
+ * resource method. Both are measured for the thread that invokes the
+ * resource method, so work that is done by other threads (e.g. writing the
+ * response of an asynchronous request) is not included.
+ * <p>The values are read from HotSpot's
+ * {@link com.sun.management.ThreadMXBean}. Values that are not supported by
+ * the JVM are not recorded. The measurements are enabled by default, but
+ * they are a setting of the whole JVM. Therefore they are never enabled by
+ * this class. Values whose measurement has been disabled, e.g. by
+ * {@code setThreadCpuTimeEnabled(false)}, are not recorded.
+ */
+final class ResourceUsage {
+    private static final String CPU_TIME_NAME = StatusTimers.NAME + ".cpu";
+    private static final String ALLOCATED_NAME
+        = StatusTimers.NAME + ".allocated";
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN
+        = threadMXBean();
+    private static final boolean CPU_TIME_SUPPORTED
+        = THREAD_MX_BEAN != null
+            && THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported();
+    private static final boolean ALLOCATED_BYTES_SUPPORTED
+        = THREAD_MX_BEAN != null
+            && THREAD_MX_BEAN.isThreadAllocatedMemorySupported();
+    //returned by the ThreadMXBean if a measurement is disabled
+    private static final long NOT_AVAILABLE = -1;
+
+    private final StatusMeters<Timer> cpuTimers;
+    private final StatusMeters<DistributionSummary> allocatedBytes;
+
+    /**
+     * Creates the meters of a resource method.
+     * @param meterRegistry the registry of the meters.
+     * @param tags the tags of the resource method.
+     * @param statusTags the tags for the response status.
+     * @param admission decides whether a meter with a name and tags may be
+     *                  registered. Meters that are not admitted don't
+     *                  record anything.
+     */
+    ResourceUsage(
+        MeterRegistry meterRegistry,
+        Tags tags,
+        StatusTags statusTags,
+        BiPredicate<String, Tags> admission
+    ) {
+        this.cpuTimers = new StatusMeters<>(
+            status -> {
+                Tags meterTags = tags.and(statusTags.forStatus(status));
+                if (!admission.test(CPU_TIME_NAME, meterTags)) {
+                    return new NoopTimer(
+                        new Meter.Id(
+                            CPU_TIME_NAME,
+                            meterTags,
+                            null,
+                            null,
+                            Meter.Type.TIMER
+                        )
+                    );
+                }
+                return Timer.builder(CPU_TIME_NAME)
+                    .description("CPU time of the thread that invokes the"
+                        + " resource method")
+                    .tags(meterTags)
+                    .register(meterRegistry);
+            }
+        );
+        this.allocatedBytes = new StatusMeters<>(
+            status -> {
+                Tags meterTags = tags.and(statusTags.forStatus(status));
+                if (!admission.test(ALLOCATED_NAME, meterTags)) {
+                    return new NoopDistributionSummary(
+                        new Meter.Id(
+                            ALLOCATED_NAME,
+                            meterTags,
+                            "bytes",
+                            null,
+                            Meter.Type.DISTRIBUTION_SUMMARY
+                        )
+                    );
+                }
+                return DistributionSummary.builder(ALLOCATED_NAME)
+                    .description("Memory allocated by the thread that"
+                        + " invokes the resource method")
+                    .baseUnit("bytes")
+                    .tags(meterTags)
+                    .register(meterRegistry);
+            }
+        );
+    }
+
+    /**
+     * Returns the CPU time of the current thread.
+     * @return the CPU time of the current thread in nanoseconds or
+     * {@code -1} if it is not supported or disabled.
+     */
+    long cpuTime() {
+        return CPU_TIME_SUPPORTED
+            ? THREAD_MX_BEAN.getCurrentThreadCpuTime()
+            : NOT_AVAILABLE;
+    }
+
+    /**
+     * Returns the number of bytes that have been allocated by the current
+     * thread.
+     * @return the number of bytes that have been allocated by the current
+     * thread or {@code -1} if it is not supported or disabled.
+     */
+    long allocatedBytes() {
+        return ALLOCATED_BYTES_SUPPORTED
+            ? THREAD_MX_BEAN.getThreadAllocatedBytes(
+                Thread.currentThread().getId()
+            )
+            : NOT_AVAILABLE;
+    }
+
+    /**
+     * Records the resource usage of an invocation. Must be called by the
+     * thread that invoked the resource method.
+     * @param status the status of the response.
+     * @param cpuTimeStart the value of {@link #cpuTime()} before the
+     *                     invocation.
+     * @param allocatedBytesStart the value of {@link #allocatedBytes()}
+     *                            before the invocation.
+     */
+    void record(
+        int status,
+        long cpuTimeStart,
+        long allocatedBytesStart
+    ) {
+        //A measurement may be disabled or enabled during the invocation.
+        if (cpuTimeStart != NOT_AVAILABLE) {
+            long cpuTime = cpuTime();
+            if (cpuTime != NOT_AVAILABLE) {
+                cpuTimers.forStatus(status)
+                    .record(cpuTime - cpuTimeStart, NANOSECONDS);
+            }
+        }
+        if (allocatedBytesStart != NOT_AVAILABLE) {
+            long allocated = allocatedBytes();
+            if (allocated != NOT_AVAILABLE) {
+                allocatedBytes.forStatus(status)
+                    .record(allocated - allocatedBytesStart);
+            }
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        try {
+            java.lang.management.ThreadMXBean bean
+                = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                return (com.sun.management.ThreadMXBean) bean;
+            } else {
+                return null;
+            }
+        } catch (LinkageError e) {
+            //com.sun.management is not available on every JVM.
+            return null;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * A {@link RequestTimer} for resource methods that time only one in
+ * {@code sampleRate} requests.
+ * <p>Every request is counted by a {@link LongAdder}, so the count of the
+ * function timer {@code http.server.requests} is exact. The duration of each
+ * timed request is weighted with the sample rate, so the total time and the
+ * mean are estimates for all requests. The unweighted durations of the timed
+ * requests are recorded by the companion timer
+ * {@code http.server.requests.sampled}, which provides the maximum and the
+ * distribution statistics.
+ */
+final class SampledRequestTimer implements RequestTimer {
+    private final int sampleRate;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder weightedTotalNanos = new LongAdder();
+    private final Timer samples;
+
+    private SampledRequestTimer(
+        int sampleRate,
+        Timer samples
+    ) {
+        this.sampleRate = sampleRate;
+        this.samples = samples;
+    }
+
+    static SampledRequestTimer register(
+        MeterRegistry meterRegistry,
+        Tags tags,
+        int sampleRate,
+        DistributionSettings distributionSettings
+    ) {
+        return register(
+            StatusTimers.NAME,
+            meterRegistry,
+            tags,
+            sampleRate,
+            distributionSettings
+        );
+    }
+
+    /**
+     * Registers the timer.
+     * @param name the name of the function timer. The companion timer has
+     *             the suffix {@code .sampled}.
+     * @param meterRegistry the registry of the timer.
+     * @param tags the tags of the timer.
+     * @param sampleRate the sample rate of the resource method.
+     * @param distributionSettings the settings of the histogram.
+     * @return the timer.
+     */
+    static SampledRequestTimer register(
+        String name,
+        MeterRegistry meterRegistry,
+        Tags tags,
+        int sampleRate,
+        DistributionSettings distributionSettings
+    ) {
+        SampledRequestTimer timer = new SampledRequestTimer(
+            sampleRate,
+            distributionSettings.applyTo(
+                Timer.builder(name + ".sampled")
+                    .description("Durations of the sampled requests")
+                    .tags(tags)
+            ).register(meterRegistry)
+        );
+        FunctionTimer.builder(
+                name,
+                timer,
+                SampledRequestTimer::count,
+                SampledRequestTimer::weightedTotalNanos,
+                NANOSECONDS
+            )
+            .tags(tags)
+            .register(meterRegistry);
+        return timer;
+    }
+
+    @Override
+    public void record(
+        long durationNanos
+    ) {
+        count.increment();
+        weightedTotalNanos.add(durationNanos * sampleRate);
+        samples.record(durationNanos, NANOSECONDS);
+    }
+
+    @Override
+    public void countUntimed() {
+        count.increment();
+    }
+
+    private long count() {
+        return count.sum();
+    }
+
+    private double weightedTotalNanos() {
+        return weightedTotalNanos.sum();
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import java.time.Duration;
+
+/**
+ * Is notified when too many requests of a resource method breach its
+ * service level agreement. The SLA of a resource method is specified by
+ * {@link ResourceMetrics#sla()}.
+ * <p>Bind the listener with Guice
+ * <pre>
+ * bind(SlaBreachListener.class)
+ *     .annotatedWith(JerseyResourceMicrometer.class)
+ *     .toInstance(listener);
+ * </pre>
+ * or pass it to the {@link MicrometerDispatchAdapter}.
+ * <p>The listener is called by a request thread. Therefore it must return
+ * quickly and must not throw an exception.
+ * @see Configuration#withSlaAlert(double, Duration)
+ */
+public interface SlaBreachListener {
+    /**
+     * Called when the rate of requests that breach the SLA exceeds the
+     * maximum rate during the sliding window. It is called at most once per
+     * tenth of the window and resource method while the rate is exceeded.
+     * @param method the HTTP method of the resource method.
+     * @param uri the uri of the resource method.
+     * @param sla the SLA of the resource method.
+     * @param breachRate the rate of requests that breach the SLA during the
+     *                   sliding window, between {@code 0} and {@code 1}.
+     */
+    void breachRateExceeded(
+        String method,
+        String uri,
+        Duration sla,
+        double breachRate
+    );
+}
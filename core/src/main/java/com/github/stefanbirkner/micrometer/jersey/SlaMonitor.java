@@ -0,0 +1,130 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the requests of an {@link Endpoint} that breach its SLA and
+ * notifies the {@link SlaBreachListener} if the rate of breaches during a
+ * sliding window exceeds the maximum rate.
+ * <p>The window is divided into ten buckets. The requests of the current
+ * bucket are counted by {@link LongAdder LongAdders}. Only the thread that
+ * closes a bucket takes a lock and evaluates the rate, so recording a
+ * request does not block.
+ */
+final class SlaMonitor {
+    private static final int BUCKETS = 10;
+
+    private final String method;
+    private final String uri;
+    private final Duration sla;
+    private final long slaNanos;
+    private final Counter breaches;
+    private final SlaBreachListener listener;
+    private final double maximumBreachRate;
+    private final long bucketNanos;
+    private final LongAdder requestsInBucket = new LongAdder();
+    private final LongAdder breachesInBucket = new LongAdder();
+    private final AtomicLong bucketEnd;
+    //guarded by this
+    private final long[] requestsPerBucket = new long[BUCKETS];
+    private final long[] breachesPerBucket = new long[BUCKETS];
+    private int bucket = 0;
+
+    /**
+     * Creates the monitor of an endpoint.
+     * @param meterRegistry the registry of the counter.
+     * @param tags the tags of the endpoint. They must have the tags
+     *             {@code method} and {@code uri}.
+     * @param sla the SLA of the endpoint.
+     * @param listener the listener or {@code null} if breaches are only
+     *                 counted.
+     * @param maximumBreachRate the rate of breaches that triggers the
+     *                          listener.
+     * @param window the sliding window or {@code null} if breaches are only
+     *               counted.
+     * @param now the current monotonic time.
+     */
+    SlaMonitor(
+        MeterRegistry meterRegistry,
+        Tags tags,
+        Duration sla,
+        SlaBreachListener listener,
+        double maximumBreachRate,
+        Duration window,
+        long now
+    ) {
+        this.method = TagsPool.valueOf(tags, "method");
+        this.uri = TagsPool.valueOf(tags, "uri");
+        this.sla = sla;
+        this.slaNanos = sla.toNanos();
+        this.breaches = Counter.builder(StatusTimers.NAME + ".sla.breaches")
+            .description("Requests that took longer than the SLA")
+            .tags(tags)
+            .register(meterRegistry);
+        this.listener = window == null ? null : listener;
+        this.maximumBreachRate = maximumBreachRate;
+        this.bucketNanos = window == null ? 0L : window.toNanos() / BUCKETS;
+        this.bucketEnd = new AtomicLong(now + bucketNanos);
+    }
+
+    void record(
+        long durationNanos,
+        long now
+    ) {
+        boolean breach = durationNanos > slaNanos;
+        if (breach) {
+            breaches.increment();
+        }
+        if (listener == null) {
+            return;
+        }
+        requestsInBucket.increment();
+        if (breach) {
+            breachesInBucket.increment();
+        }
+        long end = bucketEnd.get();
+        //Only the thread that wins the race closes the bucket.
+        if (now >= end && bucketEnd.compareAndSet(end, now + bucketNanos)) {
+            closeBuckets(1 + (now - end) / bucketNanos);
+        }
+    }
+
+    private void closeBuckets(
+        long elapsedBuckets
+    ) {
+        double breachRate;
+        synchronized (this) {
+            //Requests that are recorded concurrently may be counted for the
+            //next bucket. This does not matter for a rate.
+            requestsPerBucket[bucket] = requestsInBucket.sumThenReset();
+            breachesPerBucket[bucket] = breachesInBucket.sumThenReset();
+            //Buckets without requests are cleared.
+            for (long i = 1; i < Math.min(elapsedBuckets, BUCKETS); ++i) {
+                bucket = (bucket + 1) % BUCKETS;
+                requestsPerBucket[bucket] = 0;
+                breachesPerBucket[bucket] = 0;
+            }
+            bucket = (bucket + 1) % BUCKETS;
+            breachRate = breachRate();
+        }
+        if (breachRate > maximumBreachRate) {
+            listener.breachRateExceeded(method, uri, sla, breachRate);
+        }
+    }
+
+    private double breachRate() {
+        long requests = 0;
+        long breaches = 0;
+        for (int i = 0; i < BUCKETS; ++i) {
+            requests += requestsPerBucket[i];
+            breaches += breachesPerBucket[i];
+        }
+        return requests == 0 ? 0d : (double) breaches / requests;
+    }
+}
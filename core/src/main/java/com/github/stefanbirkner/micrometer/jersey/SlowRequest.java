@@ -0,0 +1,89 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+/**
+ * A single request that has been captured by the slow request log.
+ * @see SlowRequestsMXBean
+ */
+public final class SlowRequest {
+    private final String method;
+    private final String uri;
+    private final int status;
+    private final String queryParameters;
+    private final long durationNanos;
+    private final long timestamp;
+
+    SlowRequest(
+        String method,
+        String uri,
+        int status,
+        String queryParameters,
+        long durationNanos,
+        long timestamp
+    ) {
+        this.method = method;
+        this.uri = uri;
+        this.status = status;
+        this.queryParameters = queryParameters;
+        this.durationNanos = durationNanos;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Returns the HTTP method of the request.
+     * @return the HTTP method of the request.
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Returns the uri of the resource method. This is the same value like
+     * the tag {@code uri} of the timers.
+     * @return the uri of the resource method.
+     */
+    public String getUri() {
+        return uri;
+    }
+
+    /**
+     * Returns the status of the response or {@code -1} if it is unknown.
+     * @return the status of the response.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the names of the query parameters of the request in
+     * alphabetical order, e.g. {@code "limit&offset"}. The values are not
+     * captured because they may contain personal data.
+     * @return the names of the query parameters.
+     */
+    public String getQueryParameters() {
+        return queryParameters;
+    }
+
+    /**
+     * Returns the duration of the request in nanoseconds.
+     * @return the duration of the request in nanoseconds.
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * Returns the time when the request has been recorded in milliseconds
+     * since the epoch.
+     * @return the time when the request has been recorded.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + uri
+            + (queryParameters.isEmpty() ? "" : "?" + queryParameters)
+            + " " + status + " " + durationNanos + "ns";
+    }
+}
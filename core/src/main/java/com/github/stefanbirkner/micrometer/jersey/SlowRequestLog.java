@@ -0,0 +1,69 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Tags;
+
+import javax.management.ObjectName;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The slowest recent requests of all endpoints of a
+ * {@link MicrometerWrapperFactory}.
+ */
+final class SlowRequestLog implements SlowRequestsMXBean {
+    private final int size;
+    private final long windowNanos;
+    private final Clock clock;
+    //Endpoints with the same tags share their slowest requests.
+    private final ConcurrentMap<Tags, SlowestRequests> endpoints
+        = new ConcurrentHashMap<>();
+
+    SlowRequestLog(
+        int size,
+        long windowNanos,
+        Clock clock
+    ) {
+        this.size = size;
+        this.windowNanos = windowNanos;
+        this.clock = clock;
+    }
+
+    /**
+     * Registers the log with the platform {@code MBeanServer}. Each log gets
+     * its own id, so that applications in the same JVM don't interfere.
+     * @return the name of the MBean.
+     */
+    ObjectName registerMBean() {
+        return MBeans.register(this, "SlowRequests");
+    }
+
+    SlowestRequests forEndpoint(
+        Tags tags
+    ) {
+        return endpoints.computeIfAbsent(
+            tags,
+            key -> new SlowestRequests(
+                key,
+                size,
+                windowNanos,
+                clock
+            )
+        );
+    }
+
+    @Override
+    public List<SlowRequest> getSlowestRequests() {
+        List<SlowRequest> requests = new ArrayList<>();
+        for (SlowestRequests endpoint: endpoints.values()) {
+            endpoint.addTo(requests);
+        }
+        requests.sort(
+            Comparator.comparingLong(SlowRequest::getDurationNanos).reversed()
+        );
+        return requests;
+    }
+}
@@ -0,0 +1,20 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import java.util.List;
+
+/**
+ * The slowest recent requests of each resource method. It is registered
+ * with the platform {@code MBeanServer} as
+ * {@code com.github.stefanbirkner.micrometer.jersey:type=SlowRequests,id=...}
+ * if the slow request log is enabled.
+ * @see Configuration#withSlowRequestLog(int, java.time.Duration)
+ */
+public interface SlowRequestsMXBean {
+    /**
+     * Returns the slowest requests of all resource methods that have been
+     * recorded during the current and the previous time window, the
+     * slowest request first.
+     * @return the slowest requests.
+     */
+    List<SlowRequest> getSlowestRequests();
+}
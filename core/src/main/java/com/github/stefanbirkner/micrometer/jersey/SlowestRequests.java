@@ -0,0 +1,268 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import com.sun.jersey.api.core.HttpContext;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The slowest requests of a single {@link Endpoint} during the current and
+ * the previous time window.
+ * <p>A request that is not slower than the fastest of the captured
+ * requests costs a single comparison (and a second one for the end of the
+ * window). Only slower requests are captured. A captured request is stored
+ * as primitive values in a slot of an {@link AtomicLongArray}, so capturing
+ * does not create any object. The names of its query parameters are stored
+ * as a bit set of the names that the endpoint has seen. The
+ * {@link SlowRequest SlowRequests} and their strings are only created when
+ * the {@link SlowRequestsMXBean} is read.
+ * <p>A slot is claimed by compare-and-set of its version. The version is
+ * odd while the slot is written, so readers retry instead of reading a
+ * partially written request.
+ */
+final class SlowestRequests {
+    //The names beyond the maximum are marked by the highest bit.
+    private static final int MAXIMUM_NAMES = 63;
+    private static final long OTHER_NAMES = 1L << MAXIMUM_NAMES;
+
+    private final Tags tags;
+    private final int size;
+    private final long windowNanos;
+    private final Clock clock;
+    private final AtomicReferenceArray<String> parameterNames
+        = new AtomicReferenceArray<>(MAXIMUM_NAMES);
+    private final AtomicReference<Window> current;
+    private volatile Window previous;
+
+    SlowestRequests(
+        Tags tags,
+        int size,
+        long windowNanos,
+        Clock clock
+    ) {
+        this.tags = tags;
+        this.size = size;
+        this.windowNanos = windowNanos;
+        this.clock = clock;
+        Window window = new Window(size, clock.monotonicTime() + windowNanos);
+        this.current = new AtomicReference<>(window);
+        this.previous = window;
+    }
+
+    /**
+     * Captures the request if it is one of the slowest requests of the
+     * current window.
+     * @param context the context of the request.
+     * @param status the status of the response.
+     * @param durationNanos the duration of the request.
+     * @param now the monotonic time at the end of the request.
+     */
+    void offer(
+        HttpContext context,
+        int status,
+        long durationNanos,
+        long now
+    ) {
+        Window window = current.get();
+        if (durationNanos <= window.threshold && now < window.end) {
+            return; //fast path
+        }
+        if (now >= window.end) {
+            window = rotate(window, now);
+        }
+        window.offer(
+            status,
+            durationNanos,
+            clock.wallTime(),
+            queryParameters(context)
+        );
+    }
+
+    private Window rotate(
+        Window window,
+        long now
+    ) {
+        Window next = new Window(size, now + windowNanos);
+        //Only the thread that wins the race rotates the window.
+        if (current.compareAndSet(window, next)) {
+            previous = window;
+            return next;
+        } else {
+            return current.get();
+        }
+    }
+
+    void addTo(
+        List<SlowRequest> requests
+    ) {
+        Window window = current.get();
+        if (clock.monotonicTime() >= window.end) {
+            //No request has been offered for a whole window.
+            window = rotate(window, clock.monotonicTime());
+        }
+        Window previousWindow = previous;
+        window.addTo(requests);
+        if (previousWindow != window) {
+            previousWindow.addTo(requests);
+        }
+    }
+
+    private long queryParameters(
+        HttpContext context
+    ) {
+        long names = 0;
+        for (String name: context.getRequest().getQueryParameters().keySet()) {
+            names |= bitOf(name);
+        }
+        return names;
+    }
+
+    private long bitOf(
+        String name
+    ) {
+        //A name is only added once because all threads add names in the
+        //same order of the slots.
+        for (int i = 0; i < MAXIMUM_NAMES; ++i) {
+            if (parameterNames.get(i) == null
+                && parameterNames.compareAndSet(i, null, name)) {
+                return 1L << i;
+            }
+            if (name.equals(parameterNames.get(i))) {
+                return 1L << i;
+            }
+        }
+        return OTHER_NAMES;
+    }
+
+    private String queryParametersOf(
+        long names
+    ) {
+        TreeSet<String> sortedNames = new TreeSet<>();
+        for (int i = 0; i < MAXIMUM_NAMES; ++i) {
+            if ((names & (1L << i)) != 0) {
+                sortedNames.add(parameterNames.get(i));
+            }
+        }
+        String queryParameters = String.join("&", sortedNames);
+        if ((names & OTHER_NAMES) == 0) {
+            return queryParameters;
+        } else if (queryParameters.isEmpty()) {
+            return "...";
+        } else {
+            return queryParameters + "&...";
+        }
+    }
+
+    private final class Window {
+        //the layout of a slot
+        private static final int VERSION = 0;
+        private static final int DURATION = 1;
+        private static final int STATUS = 2;
+        private static final int TIMESTAMP = 3;
+        private static final int QUERY_PARAMETERS = 4;
+        private static final int SLOT_SIZE = 5;
+        //the duration of a free slot
+        private static final long FREE = -1;
+
+        final long end;
+        final AtomicLongArray slots;
+        //The duration of the fastest captured request or -1 if there are
+        //free slots. It may be lower than the actual value because of
+        //concurrent updates. This only costs a few unnecessary captures.
+        volatile long threshold = FREE;
+
+        Window(
+            int size,
+            long end
+        ) {
+            this.end = end;
+            this.slots = new AtomicLongArray(size * SLOT_SIZE);
+            for (int slot = 0; slot < slots.length(); slot += SLOT_SIZE) {
+                slots.set(slot + DURATION, FREE);
+            }
+        }
+
+        void offer(
+            int status,
+            long durationNanos,
+            long timestamp,
+            long queryParameters
+        ) {
+            while (true) {
+                int slot = slotOfFastest();
+                long version = slots.get(slot + VERSION);
+                if ((version & 1) != 0) {
+                    continue; //another thread writes the slot
+                }
+                if (slots.get(slot + DURATION) >= durationNanos) {
+                    break;
+                }
+                if (slots.compareAndSet(slot + VERSION, version, version + 1)) {
+                    slots.set(slot + DURATION, durationNanos);
+                    slots.set(slot + STATUS, status);
+                    slots.set(slot + TIMESTAMP, timestamp);
+                    slots.set(slot + QUERY_PARAMETERS, queryParameters);
+                    slots.set(slot + VERSION, version + 2);
+                    break;
+                }
+            }
+            updateThreshold();
+        }
+
+        private int slotOfFastest() {
+            int fastestSlot = 0;
+            long fastest = Long.MAX_VALUE;
+            for (int slot = 0; slot < slots.length(); slot += SLOT_SIZE) {
+                long duration = slots.get(slot + DURATION);
+                if (duration == FREE) {
+                    return slot;
+                } else if (duration < fastest) {
+                    fastest = duration;
+                    fastestSlot = slot;
+                }
+            }
+            return fastestSlot;
+        }
+
+        private void updateThreshold() {
+            threshold = slots.get(slotOfFastest() + DURATION);
+        }
+
+        void addTo(
+            List<SlowRequest> list
+        ) {
+            for (int slot = 0; slot < slots.length(); slot += SLOT_SIZE) {
+                long version;
+                long duration;
+                long status;
+                long timestamp;
+                long queryParameters;
+                do {
+                    version = slots.get(slot + VERSION);
+                    duration = slots.get(slot + DURATION);
+                    status = slots.get(slot + STATUS);
+                    timestamp = slots.get(slot + TIMESTAMP);
+                    queryParameters = slots.get(slot + QUERY_PARAMETERS);
+                } while ((version & 1) != 0
+                    || version != slots.get(slot + VERSION));
+                if (duration != FREE) {
+                    list.add(
+                        new SlowRequest(
+                            TagsPool.valueOf(tags, "method"),
+                            TagsPool.valueOf(tags, "uri"),
+                            (int) status,
+                            queryParametersOf(queryParameters),
+                            duration,
+                            timestamp
+                        )
+                    );
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+/**
+ * Meters of a single kind, one meter per response status.
+ * <p>The meters for the status codes 100 to 599 are registered only once
+ * and are cached afterwards. Therefore looking up the meter of a request is
+ * a single array read and needs neither a lookup in the registry nor any
+ * allocation. The meters of other statuses are cached in a map.
+ * @param <M> the type of the meters.
+ */
+final class StatusMeters<M> {
+    /**
+     * Placeholder for the status of a request whose status could not be
+     * determined.
+     */
+    static final int UNKNOWN_STATUS = -1;
+
+    private static final int MIN_STATUS = 100;
+    private static final int MAX_STATUS = 599;
+
+    private final IntFunction<M> registration;
+    private final AtomicReferenceArray<M> meters
+        = new AtomicReferenceArray<>(MAX_STATUS - MIN_STATUS + 1);
+    private final ConcurrentMap<Integer, M> otherStatusMeters
+        = new ConcurrentHashMap<>();
+    private volatile M unknownStatusMeter;
+
+    /**
+     * Creates {@code StatusMeters}.
+     * @param registration registers the meter for a status. It is called
+     *                     with {@link #UNKNOWN_STATUS} if the status is
+     *                     unknown.
+     */
+    StatusMeters(
+        IntFunction<M> registration
+    ) {
+        this.registration = registration;
+    }
+
+    M forStatus(
+        int status
+    ) {
+        if (status == UNKNOWN_STATUS) {
+            return forUnknownStatus();
+        } else if (status < MIN_STATUS || status > MAX_STATUS) {
+            return otherStatusMeters.computeIfAbsent(
+                status,
+                registration::apply
+            );
+        }
+        // Concurrent requests may register the same meter twice. This is not
+        // a problem because the registry returns the same instance for both.
+        int index = status - MIN_STATUS;
+        M meter = meters.get(index);
+        if (meter == null) {
+            meter = registration.apply(status);
+            meters.set(index, meter);
+        }
+        return meter;
+    }
+
+    private M forUnknownStatus() {
+        M meter = unknownStatusMeter;
+        if (meter == null) {
+            meter = registration.apply(UNKNOWN_STATUS);
+            unknownStatusMeter = meter;
+        }
+        return meter;
+    }
+}
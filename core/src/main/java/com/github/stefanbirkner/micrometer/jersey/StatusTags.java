@@ -0,0 +1,109 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.Arrays;
+
+import static com.github.stefanbirkner.micrometer.jersey.StatusMeters.UNKNOWN_STATUS;
+
+/**
+ * Creates the tags that describe the status of a response.
+ * <p>By default the {@code status} tag has the exact status code. If the
+ * exact status codes are restricted then all other codes are tagged with
+ * their class, e.g. {@code 4xx}. This bounds the number of timers per
+ * resource method. Optionally there is an additional {@code outcome} tag.
+ * <p>The {@link Tag Tags} for the status codes 100 to 599, the status
+ * classes and the outcomes are created once and are shared by all resource
+ * methods, so that meters with the same status don't hold copies of the
+ * same tag.
+ */
+final class StatusTags {
+    static final StatusTags EXACT = new StatusTags(false, null);
+
+    private static final int MIN_STATUS = 100;
+    private static final int MAX_STATUS = 599;
+    private static final Tag[] EXACT_STATUS_TAGS = exactStatusTags();
+    private static final Tag[] STATUS_CLASS_TAGS = statusClassTags();
+    private static final Tag UNKNOWN_STATUS_TAG = Tag.of("status", "unknown");
+    private static final Tag[] OUTCOME_TAGS = outcomeTags();
+
+    private final boolean outcomeTag;
+    private final int[] exactStatusCodes;
+
+    private StatusTags(
+        boolean outcomeTag,
+        int[] exactStatusCodes
+    ) {
+        this.outcomeTag = outcomeTag;
+        this.exactStatusCodes = exactStatusCodes;
+    }
+
+    private static Tag[] exactStatusTags() {
+        Tag[] tags = new Tag[MAX_STATUS - MIN_STATUS + 1];
+        for (int i = 0; i < tags.length; ++i) {
+            tags[i] = Tag.of("status", Integer.toString(MIN_STATUS + i));
+        }
+        return tags;
+    }
+
+    private static Tag[] statusClassTags() {
+        Tag[] tags = new Tag[MAX_STATUS / 100 + 1];
+        for (int i = MIN_STATUS / 100; i < tags.length; ++i) {
+            tags[i] = Tag.of("status", i + "xx");
+        }
+        return tags;
+    }
+
+    private static Tag[] outcomeTags() {
+        Outcome[] outcomes = Outcome.values();
+        Tag[] tags = new Tag[outcomes.length];
+        for (Outcome outcome: outcomes) {
+            tags[outcome.ordinal()] = Tag.of("outcome", outcome.name());
+        }
+        return tags;
+    }
+
+    static StatusTags of(
+        Configuration configuration
+    ) {
+        int[] exactStatusCodes = configuration.getExactStatusCodes();
+        if (exactStatusCodes != null) {
+            Arrays.sort(exactStatusCodes);
+        }
+        return new StatusTags(
+            configuration.isTaggedWithOutcome(),
+            exactStatusCodes
+        );
+    }
+
+    Tags forStatus(
+        int status
+    ) {
+        Tag statusTag = statusTag(status);
+        if (outcomeTag) {
+            Outcome outcome = Outcome.forStatus(status);
+            return Tags.of(statusTag, OUTCOME_TAGS[outcome.ordinal()]);
+        } else {
+            return Tags.of(statusTag);
+        }
+    }
+
+    private Tag statusTag(
+        int status
+    ) {
+        boolean known = status >= MIN_STATUS && status <= MAX_STATUS;
+        if (status == UNKNOWN_STATUS) {
+            return UNKNOWN_STATUS_TAG;
+        } else if (exactStatusCodes == null
+            || Arrays.binarySearch(exactStatusCodes, status) >= 0) {
+            return known
+                ? EXACT_STATUS_TAGS[status - MIN_STATUS]
+                : Tag.of("status", Integer.toString(status));
+        } else {
+            return known
+                ? STATUS_CLASS_TAGS[status / 100]
+                : Tag.of("status", status / 100 + "xx");
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import static com.github.stefanbirkner.micrometer.jersey.ExceptionTags.NO_EXCEPTION;
+
+/**
+ * The timers of a single resource method, one timer per response status.
+ * The timers are cached by {@link StatusMeters}, so recording a request
+ * needs neither a lookup in the {@link MeterRegistry} nor any allocation.
+ * <p>If the timers have an {@code exception} tag then there is a separate
+ * table for each exception.
+ */
+final class StatusTimers {
+    //We are using the same name like Spring Boot because it makes
+    //it easier to build cross-application dashboards.
+    static final String NAME = "http.server.requests";
+
+    private final Tags tags;
+    private final StatusTags statusTags;
+    private final ExceptionTags exceptionTags;
+    private final Function<Tags, RequestTimer> registration;
+    private final StatusMeters<RequestTimer> timers
+        = new StatusMeters<>(this::register);
+    private final ConcurrentMap<String, StatusTimers> timersByException
+        = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the timers of a resource method.
+     * @param tags the tags of the resource method.
+     * @param statusTags the tags for the response status.
+     * @param exceptionTags the values of the {@code exception} tag.
+     * @param registration registers a timer with the given tags.
+     */
+    StatusTimers(
+        Tags tags,
+        StatusTags statusTags,
+        ExceptionTags exceptionTags,
+        Function<Tags, RequestTimer> registration
+    ) {
+        this.tags = exceptionTags.isEnabled()
+            ? tags.and("exception", NO_EXCEPTION)
+            : tags;
+        this.statusTags = statusTags;
+        this.exceptionTags = exceptionTags;
+        this.registration = registration;
+    }
+
+    RequestTimer forStatus(
+        int status
+    ) {
+        return timers.forStatus(status);
+    }
+
+    RequestTimer forFailure(
+        int status,
+        Throwable exception
+    ) {
+        if (!exceptionTags.isEnabled()) {
+            return forStatus(status);
+        }
+        String exceptionTag = exceptionTags.valueFor(exception);
+        StatusTimers timersForException = timersByException.get(exceptionTag);
+        if (timersForException == null) {
+            timersForException = timersByException.computeIfAbsent(
+                exceptionTag,
+                this::createTimersForException
+            );
+        }
+        return timersForException.forStatus(status);
+    }
+
+    private StatusTimers createTimersForException(
+        String exceptionTag
+    ) {
+        return new StatusTimers(
+            tags.and("exception", exceptionTag),
+            statusTags,
+            ExceptionTags.DISABLED,
+            registration
+        );
+    }
+
+    private RequestTimer register(
+        int status
+    ) {
+        return registration.apply(tags.and(statusTags.forStatus(status)));
+    }
+}
@@ -0,0 +1,200 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations that is striped across threads like a
+ * {@link LongAdder}. Each thread updates the stripe that its hash selects.
+ * A thread that contends with another one on a stripe moves to another
+ * stripe and more stripes are added, so the number of stripes follows the
+ * actual concurrency. The stripes are only merged when the values are read.
+ * The total of the durations is stored in a {@code LongAdder} of its own,
+ * because every request updates it.
+ * <p>The buckets are log-linear like HdrHistogram's: each power of two is
+ * split into 8 sub-buckets, so the relative error of a value is at most
+ * 12.5%.
+ * <p>A stripe has {@value #BUCKETS} buckets and needs about 4 KB. It is
+ * padded so that stripes don't share cache lines. A histogram starts with a
+ * single stripe, which is created when the first value is recorded. There
+ * are at most {@link #MAX_STRIPES} stripes, the smallest power of two that
+ * is at least twice the number of processors. More stripes would not
+ * reduce contention because only that many threads run at the same time.
+ */
+final class StripedHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS;
+    //the total of the durations is stored after the buckets of a snapshot
+    private static final int TOTAL = BUCKETS;
+    //Two cache lines of padding before and after the buckets of a stripe,
+    //because some processors prefetch pairs of cache lines.
+    private static final int PADDING = 16;
+    static final int MAX_STRIPES = Integer.highestOneBit(
+        2 * Runtime.getRuntime().availableProcessors() - 1
+    ) << 1;
+    //The hash of a thread is changed when it contends on a stripe. It is
+    //shared by all histograms, like the probe of a LongAdder.
+    private static final ThreadLocal<int[]> HASH = ThreadLocal.withInitial(
+        () -> {
+            //Thread ids are assigned sequentially, so the threads of a pool
+            //start evenly spread across the stripes. The hash must not be
+            //zero because xorshift would not change it.
+            int id = (int) Thread.currentThread().getId();
+            return new int[] { id == 0 ? 1 : id };
+        }
+    );
+
+    private final LongAdder total = new LongAdder();
+    //Copy on write. The stripes are carried over to the new array, so no
+    //value is lost if a thread still updates a stripe of the old array.
+    private volatile AtomicLongArray[] stripes = new AtomicLongArray[1];
+
+    void record(
+        long durationNanos
+    ) {
+        //Negative durations are caused by clocks that are not monotonic.
+        long duration = Math.max(0, durationNanos);
+        int bucket = PADDING + bucket(duration);
+        int[] hash = HASH.get();
+        AtomicLongArray[] currentStripes = stripes;
+        AtomicLongArray stripe = currentStripes[
+            hash[0] & (currentStripes.length - 1)
+        ];
+        if (stripe == null) {
+            stripe = createStripe(hash[0]);
+        }
+        long count = stripe.get(bucket);
+        if (!stripe.compareAndSet(bucket, count, count + 1)) {
+            stripe.getAndIncrement(bucket);
+            contended(hash, currentStripes);
+        }
+        total.add(duration);
+    }
+
+    /**
+     * Merges the stripes.
+     * @return the counts of the buckets followed by the total of the
+     * durations.
+     */
+    long[] snapshot() {
+        long[] merged = new long[BUCKETS + 1];
+        for (AtomicLongArray stripe: stripes) {
+            if (stripe != null) {
+                for (int i = 0; i < BUCKETS; ++i) {
+                    merged[i] += stripe.get(PADDING + i);
+                }
+            }
+        }
+        merged[TOTAL] = total.sum();
+        return merged;
+    }
+
+    /**
+     * Returns the number of stripes that have been created.
+     * @return the number of stripes that have been created.
+     */
+    int createdStripes() {
+        int created = 0;
+        for (AtomicLongArray stripe: stripes) {
+            if (stripe != null) {
+                ++created;
+            }
+        }
+        return created;
+    }
+
+    static long count(
+        long[] snapshot
+    ) {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; ++i) {
+            count += snapshot[i];
+        }
+        return count;
+    }
+
+    static long totalNanos(
+        long[] snapshot
+    ) {
+        return snapshot[TOTAL];
+    }
+
+    /**
+     * Returns the largest value of a bucket.
+     * @param bucket the index of the bucket.
+     * @return the largest value of the bucket.
+     */
+    static long upperBound(
+        int bucket
+    ) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+        long lowerBound = (long) (SUB_BUCKETS | (bucket & (SUB_BUCKETS - 1)))
+            << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+
+    static int bucket(
+        long value
+    ) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS)
+            | (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * Moves the thread to another stripe and adds stripes unless there are
+     * enough already.
+     */
+    private void contended(
+        int[] hash,
+        AtomicLongArray[] currentStripes
+    ) {
+        //xorshift, as used by ThreadLocalRandom for the probe of LongAdder
+        int h = hash[0];
+        h ^= h << 13;
+        h ^= h >>> 17;
+        h ^= h << 5;
+        hash[0] = h;
+        if (currentStripes.length < MAX_STRIPES) {
+            grow(currentStripes);
+        }
+    }
+
+    private synchronized void grow(
+        AtomicLongArray[] currentStripes
+    ) {
+        //Another thread may have grown the stripes already.
+        if (stripes == currentStripes) {
+            stripes = Arrays.copyOf(
+                currentStripes,
+                2 * currentStripes.length
+            );
+        }
+    }
+
+    private synchronized AtomicLongArray createStripe(
+        int hash
+    ) {
+        AtomicLongArray[] currentStripes = stripes;
+        int index = hash & (currentStripes.length - 1);
+        AtomicLongArray stripe = currentStripes[index];
+        if (stripe == null) {
+            //Stripes are created lazily so that a histogram that is used by
+            //a few threads only needs a few of them.
+            stripe = new AtomicLongArray(PADDING + BUCKETS + PADDING);
+            AtomicLongArray[] newStripes = currentStripes.clone();
+            newStripes[index] = stripe;
+            stripes = newStripes;
+        }
+        return stripe;
+    }
+}
@@ -0,0 +1,154 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.util.DoubleFormat;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * A {@link RequestTimer} that is backed by a {@link StripedHistogram}
+ * instead of a Micrometer timer. Recording a request only updates the
+ * stripe of the current thread. The stripes are merged when the registry
+ * publishes the meters.
+ * <p>The count and the total time are published by the function timer
+ * {@code http.server.requests}. The maximum and the percentiles are
+ * published by the companion time gauges
+ * {@code http.server.requests.striped.max} and
+ * {@code http.server.requests.striped.percentile} (with the tag
+ * {@code phi}). They are computed from the requests of the last one to two
+ * minutes.
+ */
+final class StripedRequestTimer implements RequestTimer {
+    private static final String COMPANION_PREFIX
+        = StatusTimers.NAME + ".striped";
+    private static final long WINDOW_NANOS = MINUTES.toNanos(1);
+
+    private final StripedHistogram histogram = new StripedHistogram();
+    private final Clock clock;
+    //The window is only accessed when the meters are published and is
+    //guarded by this.
+    private long[] previousBaseline = new long[StripedHistogram.BUCKETS + 1];
+    private long[] baseline = previousBaseline;
+    private long baselineTime;
+
+    private StripedRequestTimer(
+        Clock clock
+    ) {
+        this.clock = clock;
+        this.baselineTime = clock.monotonicTime();
+    }
+
+    static StripedRequestTimer register(
+        MeterRegistry meterRegistry,
+        Tags tags,
+        double[] percentiles
+    ) {
+        StripedRequestTimer timer = new StripedRequestTimer(
+            meterRegistry.config().clock()
+        );
+        FunctionTimer.builder(
+                StatusTimers.NAME,
+                timer,
+                StripedRequestTimer::count,
+                StripedRequestTimer::totalNanos,
+                NANOSECONDS
+            )
+            .tags(tags)
+            .register(meterRegistry);
+        TimeGauge.builder(
+                COMPANION_PREFIX + ".max",
+                timer,
+                NANOSECONDS,
+                StripedRequestTimer::maxNanos
+            )
+            .tags(tags)
+            .register(meterRegistry);
+        for (double percentile : percentiles) {
+            TimeGauge.builder(
+                    COMPANION_PREFIX + ".percentile",
+                    timer,
+                    NANOSECONDS,
+                    t -> t.percentileNanos(percentile)
+                )
+                .tags(tags)
+                .tag("phi", DoubleFormat.decimalOrNan(percentile))
+                .register(meterRegistry);
+        }
+        return timer;
+    }
+
+    @Override
+    public void record(
+        long durationNanos
+    ) {
+        histogram.record(durationNanos);
+    }
+
+    @Override
+    public void countUntimed() {
+        //not called because every request of a resource method without
+        //sampling is timed
+    }
+
+    private long count() {
+        return StripedHistogram.count(histogram.snapshot());
+    }
+
+    private double totalNanos() {
+        return StripedHistogram.totalNanos(histogram.snapshot());
+    }
+
+    private double maxNanos() {
+        long[] window = window();
+        for (int i = StripedHistogram.BUCKETS - 1; i >= 0; --i) {
+            if (window[i] > 0) {
+                return StripedHistogram.upperBound(i);
+            }
+        }
+        return 0;
+    }
+
+    private double percentileNanos(
+        double percentile
+    ) {
+        long[] window = window();
+        long count = StripedHistogram.count(window);
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile * count));
+        long cumulative = 0;
+        for (int i = 0; i < StripedHistogram.BUCKETS; ++i) {
+            cumulative += window[i];
+            if (cumulative >= rank) {
+                return StripedHistogram.upperBound(i);
+            }
+        }
+        return 0; //not reached because the rank is at most the count
+    }
+
+    /**
+     * Returns the bucket counts of the requests since the previous
+     * baseline. The baseline is moved once per minute, so the window covers
+     * one to two minutes.
+     */
+    private synchronized long[] window() {
+        long[] current = histogram.snapshot();
+        long now = clock.monotonicTime();
+        if (now - baselineTime >= WINDOW_NANOS) {
+            previousBaseline = baseline;
+            baseline = current;
+            baselineTime = now;
+        }
+        long[] window = new long[current.length];
+        for (int i = 0; i < current.length; ++i) {
+            window[i] = current[i] - previousBaseline[i];
+        }
+        return window;
+    }
+}
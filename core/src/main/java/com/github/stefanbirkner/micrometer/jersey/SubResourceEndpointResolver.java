@@ -0,0 +1,127 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import com.sun.jersey.api.core.HttpContext;
+import com.sun.jersey.api.uri.UriTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Resolves the {@link Endpoint} of a method of a sub-resource. The path of
+ * such a method is not known at startup because it depends on the
+ * sub-resource locators that lead to the sub-resource. It is built from the
+ * URI templates that have been matched by the request.
+ * <p>The resolver of the endpoint of each chain of templates is created
+ * only once. Further requests that match the same templates find it by
+ * comparing the templates without creating any objects.
+ */
+final class SubResourceEndpointResolver
+    implements EndpointResolver
+{
+    private final Function<String, EndpointResolver> resolverForUri;
+    private volatile Entry[] entries = new Entry[0];
+
+    SubResourceEndpointResolver(
+        Function<String, EndpointResolver> resolverForUri
+    ) {
+        this.resolverForUri = resolverForUri;
+    }
+
+    @Override
+    public Endpoint resolve(
+        HttpContext context
+    ) {
+        List<UriTemplate> templates = context.getUriInfo()
+            .getMatchedTemplates();
+        EndpointResolver resolver = find(entries, templates);
+        if (resolver == null) {
+            resolver = add(templates);
+        }
+        return resolver.resolve(context);
+    }
+
+    private synchronized EndpointResolver add(
+        List<UriTemplate> templates
+    ) {
+        Entry[] currentEntries = entries;
+        EndpointResolver resolver = find(currentEntries, templates);
+        if (resolver == null) {
+            resolver = resolverForUri.apply(uri(templates));
+            Entry[] newEntries = Arrays.copyOf(
+                currentEntries,
+                currentEntries.length + 1
+            );
+            newEntries[currentEntries.length] = new Entry(
+                templatesOf(templates),
+                resolver
+            );
+            entries = newEntries;
+        }
+        return resolver;
+    }
+
+    private static EndpointResolver find(
+        Entry[] entries,
+        List<UriTemplate> templates
+    ) {
+        for (Entry entry: entries) {
+            if (entry.matches(templates)) {
+                return entry.resolver;
+            }
+        }
+        return null;
+    }
+
+    private static String[] templatesOf(
+        List<UriTemplate> templates
+    ) {
+        String[] values = new String[templates.size()];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = templates.get(i).getTemplate();
+        }
+        return values;
+    }
+
+    /**
+     * Builds the path from the matched templates. Jersey provides them in
+     * reverse order, i.e. the template of the root resource is the last one.
+     */
+    private static String uri(
+        List<UriTemplate> templates
+    ) {
+        List<String> values = new ArrayList<>(templates.size());
+        for (int i = templates.size() - 1; i >= 0; --i) {
+            values.add(templates.get(i).getTemplate());
+        }
+        return ResourceMethodSupport.uri(values);
+    }
+
+    private static class Entry {
+        final String[] templates;
+        final EndpointResolver resolver;
+
+        Entry(
+            String[] templates,
+            EndpointResolver resolver
+        ) {
+            this.templates = templates;
+            this.resolver = resolver;
+        }
+
+        boolean matches(
+            List<UriTemplate> templates
+        ) {
+            if (this.templates.length != templates.size()) {
+                return false;
+            }
+            for (int i = 0; i < this.templates.length; ++i) {
+                if (!this.templates[i].equals(templates.get(i).getTemplate())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
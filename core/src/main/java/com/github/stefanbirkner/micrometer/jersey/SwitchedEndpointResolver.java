@@ -0,0 +1,59 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import com.sun.jersey.api.core.HttpContext;
+
+import java.util.function.Supplier;
+
+/**
+ * Resolves the {@link Endpoint} of a resource method whose level can be
+ * changed at runtime. No endpoint is resolved while the method is switched
+ * off. The endpoint is created when the method is resolved at a higher
+ * level for the first time, so a method that is never switched on does not
+ * register any meter.
+ */
+final class SwitchedEndpointResolver
+    implements EndpointResolver
+{
+    private final InstrumentationSwitch instrumentationSwitch;
+    private final Supplier<Endpoint> endpointFactory;
+    private volatile Endpoint endpoint;
+
+    SwitchedEndpointResolver(
+        InstrumentationSwitch instrumentationSwitch,
+        Supplier<Endpoint> endpointFactory
+    ) {
+        this.instrumentationSwitch = instrumentationSwitch;
+        this.endpointFactory = endpointFactory;
+    }
+
+    @Override
+    public Endpoint resolve(
+        HttpContext context
+    ) {
+        if (instrumentationSwitch.isOff()) {
+            return null;
+        } else {
+            return endpoint();
+        }
+    }
+
+    /**
+     * Returns the endpoint and creates it if necessary.
+     * @return the endpoint.
+     */
+    Endpoint endpoint() {
+        Endpoint endpoint = this.endpoint;
+        if (endpoint == null) {
+            return createEndpoint();
+        } else {
+            return endpoint;
+        }
+    }
+
+    private synchronized Endpoint createEndpoint() {
+        if (endpoint == null) {
+            endpoint = endpointFactory.get();
+        }
+        return endpoint;
+    }
+}
@@ -0,0 +1,72 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Deduplicates the {@code method} and {@code uri} tags of the resource
+ * methods. Resource methods with the same HTTP method and path (e.g. methods
+ * that only differ by their media types) share a single {@code Tags}
+ * instance and so do the timers that are created for them. Resource methods
+ * with the same HTTP method or the same path share the {@link Tag}.
+ * <p>The {@link #SHARED} pool is used by all factories, so applications
+ * with many resource methods and meters hold each tag only once. The pool
+ * is never cleared, but its size is bounded by the number of resource
+ * methods.
+ */
+final class TagsPool {
+    //must be initialized before SHARED because the constructor uses it
+    private static final String[] STANDARD_METHODS = {
+        "GET", "HEAD", "POST", "PUT", "DELETE", "OPTIONS", "PATCH", "TRACE"
+    };
+
+    static final TagsPool SHARED = new TagsPool();
+
+    private final ConcurrentMap<String, Tag> methodTags
+        = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Tag> uriTags
+        = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Tag, ConcurrentMap<Tag, Tags>> tags
+        = new ConcurrentHashMap<>();
+
+    TagsPool() {
+        for (String method: STANDARD_METHODS) {
+            methodTags.put(method, Tag.of("method", method));
+        }
+    }
+
+    Tags tagsFor(
+        String httpMethod,
+        String uri
+    ) {
+        Tag methodTag = methodTags.computeIfAbsent(
+            httpMethod,
+            m -> Tag.of("method", m)
+        );
+        Tag uriTag = uriTags.computeIfAbsent(uri, u -> Tag.of("uri", u));
+        return tags
+            .computeIfAbsent(methodTag, m -> new ConcurrentHashMap<>())
+            .computeIfAbsent(uriTag, u -> Tags.of(methodTag, uriTag));
+    }
+
+    /**
+     * Returns the value of a tag.
+     * @param tags the tags, e.g. the tags of a resource method.
+     * @param key the key of the tag.
+     * @return the value of the tag or an empty string if there is no such
+     * tag.
+     */
+    static String valueOf(
+        Tags tags,
+        String key
+    ) {
+        return tags.stream()
+            .filter(tag -> tag.getKey().equals(key))
+            .findFirst()
+            .map(Tag::getValue)
+            .orElse("");
+    }
+}
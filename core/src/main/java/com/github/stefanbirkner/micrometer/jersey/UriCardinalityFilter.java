@@ -0,0 +1,169 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.config.MeterFilterReply;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link MeterFilter} that limits the number of meters that are created
+ * for HTTP requests. It only affects meters whose name starts with
+ * {@code http.server.}.
+ * <p>The factories of this library don't add the filter to the
+ * {@code MeterRegistry}. They apply it to their own meters before they
+ * register them by {@link #uriFor(String)} and
+ * {@link #admit(String, Tags)}, so the meters of other libraries are not
+ * affected and nothing remains in the registry when the application is
+ * stopped. You can add the filter to the registry yourself, e.g. when you
+ * don't use {@code Configuration}. Then it affects all meters whose name
+ * starts with {@code http.server.}.
+ * <ul>
+ * <li>After the maximum number of different values of the tag {@code uri}
+ * has been reached, further values are replaced by {@code OTHER}.</li>
+ * <li>After the maximum number of meters has been reached, further meters
+ * are denied, i.e. they don't record anything.</li>
+ * </ul>
+ * <p>Each replaced value of {@code uri} and each denied meter is counted
+ * once by the counter {@code jersey.micrometer.meters.rejected}, which is
+ * registered by {@link #registerRejectedMetersCounter(MeterRegistry)}.
+ * Registering the same meter again is not counted again. The values of
+ * {@code uri} are templates, so the number of rejected values is limited by
+ * the resource methods of the application.
+ */
+public final class UriCardinalityFilter implements MeterFilter {
+    /**
+     * The value of the tag {@code uri} that replaces values that exceed
+     * the maximum.
+     */
+    public static final String OTHER = "OTHER";
+
+    private static final String PREFIX = "http.server.";
+
+    private final int maximumUris;
+    private final int maximumMeters;
+    private final Set<String> uris = ConcurrentHashMap.newKeySet();
+    private final Set<Meter.Id> meters = ConcurrentHashMap.newKeySet();
+    private final Set<String> rejectedUris = ConcurrentHashMap.newKeySet();
+    private final Set<Meter.Id> deniedMeters = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a filter.
+     * @param maximumUris the maximum number of different values of the tag
+     *                    {@code uri}.
+     * @param maximumMeters the maximum number of meters.
+     */
+    public UriCardinalityFilter(
+        int maximumUris,
+        int maximumMeters
+    ) {
+        this.maximumUris = maximumUris;
+        this.maximumMeters = maximumMeters;
+    }
+
+    /**
+     * Registers the counter {@code jersey.micrometer.meters.rejected} that
+     * counts the replaced values of the tag {@code uri} and the denied
+     * meters.
+     * @param meterRegistry the registry of the counter.
+     */
+    public void registerRejectedMetersCounter(
+        MeterRegistry meterRegistry
+    ) {
+        FunctionCounter.builder(
+                "jersey.micrometer.meters.rejected",
+                this,
+                UriCardinalityFilter::rejectedMeters
+            )
+            .description("Meters whose uri has been replaced or that have"
+                + " been denied because of too many meters")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Returns the number of different replaced values of the tag
+     * {@code uri} and different denied meters.
+     * @return the number of rejected meters.
+     */
+    public long rejectedMeters() {
+        return rejectedUris.size() + deniedMeters.size();
+    }
+
+    /**
+     * Returns the value of the tag {@code uri} that is used for a
+     * {@code uri}. The resource methods use it before they create their
+     * meters. Therefore all methods whose {@code uri} is replaced share the
+     * same meters, including the function meters and gauges that are bound
+     * to an object.
+     * @param uri the value of the tag {@code uri}.
+     * @return the {@code uri} or {@link #OTHER} if the maximum number of
+     * values has been reached.
+     */
+    String uriFor(
+        String uri
+    ) {
+        if (uri.equals(OTHER) || uris.contains(uri)) {
+            return uri;
+        }
+        //Concurrent registrations may exceed the maximum by a few values.
+        if (uris.size() < maximumUris) {
+            uris.add(uri);
+            return uri;
+        }
+        rejectedUris.add(uri);
+        return OTHER;
+    }
+
+    /**
+     * Decides whether a meter may be registered. It is used by the factories
+     * before they register their meters. A meter that is denied is counted
+     * once, even if it is checked again.
+     * @param name the name of the meter.
+     * @param tags the tags of the meter.
+     * @return {@code true} iff the meter may be registered.
+     */
+    boolean admit(
+        String name,
+        Tags tags
+    ) {
+        Meter.Id id = new Meter.Id(name, tags, null, null, Meter.Type.OTHER);
+        return accept(id) != MeterFilterReply.DENY;
+    }
+
+    @Override
+    public Meter.Id map(
+        Meter.Id id
+    ) {
+        String uri = id.getTag("uri");
+        if (!id.getName().startsWith(PREFIX) || uri == null) {
+            return id;
+        }
+        String mappedUri = uriFor(uri);
+        if (mappedUri.equals(uri)) {
+            return id;
+        }
+        return id.replaceTags(
+            Tags.of(id.getTagsAsIterable()).and(Tag.of("uri", mappedUri))
+        );
+    }
+
+    @Override
+    public MeterFilterReply accept(
+        Meter.Id id
+    ) {
+        if (!id.getName().startsWith(PREFIX) || meters.contains(id)) {
+            return MeterFilterReply.NEUTRAL;
+        }
+        if (meters.size() < maximumMeters) {
+            meters.add(id);
+            return MeterFilterReply.NEUTRAL;
+        }
+        deniedMeters.add(id);
+        return MeterFilterReply.DENY;
+    }
+}
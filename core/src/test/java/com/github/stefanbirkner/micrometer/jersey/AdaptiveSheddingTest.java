@@ -0,0 +1,66 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import io.micrometer.core.instrument.MockClock;
+import org.junit.Test;
+
+import static com.github.stefanbirkner.micrometer.jersey.InstrumentationLevel.FULL;
+import static com.github.stefanbirkner.micrometer.jersey.InstrumentationLevel.TIMER;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+
+public class AdaptiveSheddingTest {
+    private final MockClock clock = new MockClock();
+    private final AdaptiveShedding shedding = new AdaptiveShedding(
+        clock,
+        1_000 //nanoseconds
+    );
+
+    @Test
+    public void level_is_full_initially(
+    ) {
+        assertEquals(FULL, shedding.level());
+    }
+
+    @Test
+    public void level_is_lowered_when_recording_is_too_expensive(
+    ) {
+        clock.add(1, SECONDS);
+
+        probeWithCost(10);
+
+        assertEquals(TIMER, shedding.level());
+    }
+
+    @Test
+    public void level_is_not_changed_twice_within_a_second(
+    ) {
+        clock.add(1, SECONDS);
+
+        probeWithCost(10);
+        probeWithCost(10);
+
+        assertEquals(TIMER, shedding.level());
+    }
+
+    @Test
+    public void level_is_restored_when_recording_is_cheap_again(
+    ) {
+        clock.add(1, SECONDS);
+        probeWithCost(10);
+
+        for (int i = 0; i < 20; ++i) {
+            probeWithCost(0);
+        }
+        clock.add(1, SECONDS);
+        probeWithCost(0);
+
+        assertEquals(FULL, shedding.level());
+    }
+
+    private void probeWithCost(
+        long micros
+    ) {
+        shedding.recordCost(MICROSECONDS.toNanos(micros));
+    }
+}
@@ -0,0 +1,206 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import io.micrometer.core.instrument.search.RequiredSearch;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.synchronizedList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncRecorderTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<String> events = synchronizedList(new ArrayList<>());
+    private AsyncRecorder recorder;
+
+    @After
+    public void closeRecorder(
+    ) {
+        if (recorder != null) {
+            recorder.close();
+        }
+    }
+
+    @Test
+    public void events_are_applied_to_wrapped_timer(
+    ) {
+        recorder = new AsyncRecorder(registry, 16);
+        RequestTimer timer = recorder.wrap(new CollectingTimer());
+
+        timer.record(1_000);
+        timer.countUntimed();
+        recorder.close();
+
+        assertEquals(asList("record:1000", "untimed"), events);
+    }
+
+    @Test
+    public void events_are_drained_while_recorder_is_running(
+    ) throws Exception {
+        recorder = new AsyncRecorder(registry, 16);
+        Semaphore recorded = new Semaphore(0);
+        RequestTimer timer = recorder.wrap(new RequestTimer() {
+            @Override
+            public void record(
+                long durationNanos
+            ) {
+                recorded.release();
+            }
+
+            @Override
+            public void countUntimed() {
+            }
+        });
+
+        //more events than the capacity of the queue
+        for (int i = 0; i < 100; ++i) {
+            timer.record(i);
+            assertTrue(recorded.tryAcquire(5, SECONDS));
+        }
+    }
+
+    @Test
+    public void events_that_do_not_fit_into_queue_are_dropped_and_counted(
+    ) throws Exception {
+        recorder = new AsyncRecorder(registry, 2);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RequestTimer blocking = recorder.wrap(new RequestTimer() {
+            @Override
+            public void record(
+                long durationNanos
+            ) {
+                entered.countDown();
+                await(release);
+            }
+
+            @Override
+            public void countUntimed() {
+            }
+        });
+        RequestTimer collecting = recorder.wrap(new CollectingTimer());
+        blocking.record(1);
+        entered.await(); //the queue is empty and the drainer is blocked
+
+        for (int i = 0; i < 5; ++i) {
+            collecting.record(i);
+        }
+        release.countDown();
+        recorder.close();
+
+        assertEquals(asList("record:0", "record:1"), events);
+        assertEquals(
+            3.0,
+            RequiredSearch.in(registry)
+                .name("jersey.micrometer.async.dropped")
+                .functionCounter()
+                .count(),
+            0.0
+        );
+    }
+
+    @Test
+    public void failing_timer_does_not_stop_recording(
+    ) {
+        recorder = new AsyncRecorder(registry, 16);
+        RequestTimer failing = recorder.wrap(new RequestTimer() {
+            @Override
+            public void record(
+                long durationNanos
+            ) {
+                throw new IllegalStateException("dummy failure");
+            }
+
+            @Override
+            public void countUntimed() {
+            }
+        });
+        RequestTimer collecting = recorder.wrap(new CollectingTimer());
+
+        failing.record(1);
+        collecting.record(2);
+        recorder.close();
+
+        assertEquals(asList("record:2"), events);
+    }
+
+    @Test
+    public void same_timer_is_wrapped_only_once(
+    ) {
+        recorder = new AsyncRecorder(registry, 16);
+        RequestTimer timer = new CollectingTimer();
+
+        assertSame(recorder.wrap(timer), recorder.wrap(timer));
+    }
+
+    @Test
+    public void more_timers_than_initial_array_size_can_be_wrapped(
+    ) {
+        recorder = new AsyncRecorder(registry, 64);
+        List<RequestTimer> timers = new ArrayList<>();
+        for (int i = 0; i < 40; ++i) {
+            timers.add(recorder.wrap(new CollectingTimer()));
+        }
+
+        timers.get(39).record(39);
+        recorder.close();
+
+        assertEquals(asList("record:39"), events);
+    }
+
+    @Test
+    public void close_stops_background_thread(
+    ) {
+        int threadsBefore = recorderThreads();
+        recorder = new AsyncRecorder(registry, 16);
+
+        recorder.close();
+
+        assertEquals(threadsBefore, recorderThreads());
+    }
+
+    private static int recorderThreads() {
+        Thread[] threads = new Thread[Thread.activeCount() + 10];
+        int count = Thread.enumerate(threads);
+        int recorderThreads = 0;
+        for (int i = 0; i < count; ++i) {
+            if (threads[i].getName().equals("jersey-micrometer-recorder")) {
+                ++recorderThreads;
+            }
+        }
+        return recorderThreads;
+    }
+
+    private static void await(
+        CountDownLatch latch
+    ) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private class CollectingTimer implements RequestTimer {
+        @Override
+        public void record(
+            long durationNanos
+        ) {
+            events.add("record:" + durationNanos);
+        }
+
+        @Override
+        public void countUntimed() {
+            events.add("untimed");
+        }
+    }
+}
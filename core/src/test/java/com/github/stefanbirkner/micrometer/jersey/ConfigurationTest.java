@@ -0,0 +1,56 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+
+public class ConfigurationTest {
+    private final Configuration configuration = new Configuration();
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negative_maximum_number_of_uris_is_rejected(
+    ) {
+        configuration.withMaximumUris(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negative_maximum_number_of_meters_is_rejected(
+    ) {
+        configuration.withMaximumMeters(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void maximum_number_of_exception_names_that_is_not_positive_is_rejected(
+    ) {
+        configuration.withExceptionTag(0);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void missing_recording_cost_limit_is_rejected(
+    ) {
+        configuration.withAdaptiveShedding(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void recording_cost_limit_that_is_not_positive_is_rejected(
+    ) {
+        configuration.withAdaptiveShedding(Duration.ZERO);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void missing_window_of_slow_request_log_is_rejected(
+    ) {
+        configuration.withSlowRequestLog(10, null);
+    }
+
+    @Test
+    public void configuration_is_not_changed_by_with_method(
+    ) {
+        Configuration changed = configuration.withSampleRate(10);
+
+        assertEquals(1, configuration.getSampleRate());
+        assertEquals(10, changed.getSampleRate());
+    }
+}
@@ -0,0 +1,1643 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.servlet.GuiceFilter;
+import com.google.inject.servlet.ServletModule;
+import com.palominolabs.jersey.dispatchwrapper.ResourceMethodWrappedDispatchModule;
+import com.sun.jersey.api.core.DefaultResourceConfig;
+import com.sun.jersey.guice.JerseyServletModule;
+import com.sun.jersey.guice.spi.container.servlet.GuiceContainer;
+import com.sun.jersey.spi.container.servlet.ServletContainer;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.search.RequiredSearch;
+import io.micrometer.core.instrument.search.Search;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.servlet.FilterHolder;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+import javax.management.ObjectName;
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.inject.Guice.createInjector;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+@RunWith(Enclosed.class)
+public class FullStackTest {
+
+    private static final int PORT = 18080;
+
+    public static class about_measurement {
+        private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        @Test
+        public void measurement_has_fixed_named(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                sendGetRequest();
+
+                assertEquals(
+                    "http.server.requests",
+                    getTimer().getId().getName()
+                );
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void measurement_count_is_equal_to_number_of_requests(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                sendGetRequest();
+                sendGetRequest();
+
+                assertEquals(
+                    2,
+                    getTimer().count()
+                );
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void measurement_time_is_greater_than_zero(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                sendGetRequest();
+
+                assertTrue(
+                    getTimer().totalTime(MILLISECONDS) > 0d
+                );
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void measurement_is_tagged_with_HTTP_method(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                sendGetRequest();
+
+                assertMeasurementPresentWithTag("method", "GET");
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void measurement_is_tagged_with_status(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                sendGetRequest();
+
+                assertMeasurementPresentWithTag("status", "200");
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void measurement_is_tagged_with_status_from_WebApplicationException(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                FullStackTest.sendGetRequest(
+                    "/no-class-annotation/method/throws/WebApplicationException/404"
+                );
+
+                assertMeasurementPresentWithTag("status", "404");
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void measurement_is_tagged_with_status_unknown_for_arbitrary_Exception(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                FullStackTest.sendGetRequest(
+                    "/no-class-annotation/method/throws/Exception"
+                );
+
+                assertMeasurementPresentWithTag("status", "unknown");
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void measurement_is_tagged_with_path(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                sendGetRequest();
+
+                assertMeasurementPresentWithTag(
+                    "uri",
+                    "/no-class-annotation/no-method-annotation"
+                );
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void path_in_tag_has_no_trailing_slash(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                FullStackTest.sendGetRequest(
+                    "/no-class-annotation/with-trailing-slash"
+                );
+
+                assertMeasurementPresentWithTag(
+                    "uri",
+                    "/no-class-annotation/with-trailing-slash"
+                );
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void path_in_tag_has_parameter_placeholder_if_present(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                FullStackTest.sendGetRequest(
+                    "/no-class-annotation/with/some-value"
+                );
+
+                assertMeasurementPresentWithTag(
+                    "uri",
+                    "/no-class-annotation/with/{parameter}"
+                );
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void path_in_tag_contains_path_of_sub_resource_locator(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                FullStackTest.sendGetRequest(
+                    "/no-class-annotation/locator/some-id"
+                );
+
+                assertMeasurementPresentWithTag(
+                    "uri",
+                    "/no-class-annotation/locator/{id}"
+                );
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void path_in_tag_contains_path_of_sub_resource_locator_and_sub_resource_method(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                FullStackTest.sendGetRequest(
+                    "/no-class-annotation/locator/some-id/sub-path"
+                );
+
+                assertMeasurementPresentWithTag(
+                    "uri",
+                    "/no-class-annotation/locator/{id}/sub-path"
+                );
+            } finally {
+                server.stop();
+            }
+        }
+
+        private Server startServer(
+        ) throws Exception {
+            return FullStackTest.startServer(
+                registry
+            );
+        }
+
+
+        private void sendGetRequest(
+        ) throws IOException {
+            FullStackTest.sendGetRequest(
+                "/no-class-annotation/no-method-annotation"
+            );
+        }
+
+        private Timer getTimer() {
+            return (Timer) registry.getMeters().get(0);
+        }
+
+        private void assertMeasurementPresentWithTag(String key, String value) {
+            RequiredSearch.in(registry)
+                .tag(key, value)
+                .meter(); //throws an exception if no matching meter is present
+        }
+    }
+
+    public static class about_timing {
+        private final SimpleMeterRegistry registry = new SimpleMeterRegistry(
+            SimpleConfig.DEFAULT,
+            NoAnnotationOnClass.CLOCK
+        );
+
+        @Test
+        public void measurement_time_is_taken_from_clock_of_registry_with_nanosecond_precision(
+        ) throws Exception {
+            Server server = FullStackTest.startServer(registry);
+            try {
+                sendGetRequest("/no-class-annotation/advances-clock");
+
+                Timer timer = (Timer) registry.getMeters().get(0);
+                assertEquals(
+                    250_000d,
+                    timer.totalTime(NANOSECONDS),
+                    0d
+                );
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void request_is_timed_until_response_is_committed_with_async_timing(
+        ) throws Exception {
+            AbstractModule module = createModule(
+                registry,
+                new Configuration().withAsyncTiming()
+            );
+            Server server = startServerWithModule(module);
+            try {
+                sendGetRequest("/no-class-annotation/advances-clock");
+
+                Timer timer = RequiredSearch.in(registry)
+                    .name("http.server.requests")
+                    .tag("status", "200")
+                    .timer();
+                assertEquals(1, timer.count());
+                assertEquals(
+                    250_000d,
+                    timer.totalTime(NANOSECONDS),
+                    0d
+                );
+            } finally {
+                server.stop();
+            }
+        }
+    }
+
+    public static class about_complete_response_timer {
+        private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        @Test
+        public void request_is_recorded_by_complete_response_timer(
+        ) throws Exception {
+            AbstractModule module = createModule(
+                registry,
+                new Configuration().withCompleteResponseTimer()
+            );
+            Server server = startServerWithModule(module);
+            try {
+                sendGetRequest("/no-class-annotation/no-method-annotation");
+
+                assertEquals(1, awaitCompleteTimer().count());
+            } finally {
+                server.stop();
+            }
+        }
+
+        //The client may receive the response before the server has finished
+        //writing it.
+        private Timer awaitCompleteTimer(
+        ) throws InterruptedException {
+            for (int i = 0; i < 100; ++i) {
+                Timer timer = registry.find("http.server.requests.complete")
+                    .timer();
+                if (timer != null && timer.count() > 0) {
+                    return timer;
+                }
+                Thread.sleep(10);
+            }
+            fail("No request has been recorded.");
+            return null;
+        }
+    }
+
+    public static class about_distribution_statistics {
+        private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        @Test
+        public void timer_has_buckets_for_service_level_objectives_of_configuration(
+        ) throws Exception {
+            AbstractModule module = createModule(
+                registry,
+                new Configuration()
+                    .withServiceLevelObjectives(Duration.ofMillis(100))
+            );
+            Server server = startServerWithModule(module);
+            try {
+                sendGetRequest("/no-class-annotation/no-method-annotation");
+
+                assertTimerHasBucket(100);
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void timer_has_buckets_for_service_level_objectives_of_annotation(
+        ) throws Exception {
+            Server server = FullStackTest.startServer(registry);
+            try {
+                sendGetRequest(
+                    "/no-class-annotation/with-service-level-objective"
+                );
+
+                assertTimerHasBucket(50);
+            } finally {
+                server.stop();
+            }
+        }
+
+        private void assertTimerHasBucket(
+            double millis
+        ) {
+            //Micrometer registers the buckets as gauges, too.
+            Timer timer = RequiredSearch.in(registry)
+                .name("http.server.requests")
+                .timer();
+            assertTrue(
+                "The timer has no bucket for " + millis + " ms.",
+                Arrays.stream(timer.takeSnapshot().histogramCounts())
+                    .anyMatch(bucket -> bucket.bucket(MILLISECONDS) == millis)
+            );
+        }
+    }
+
+    public static class about_status_tags {
+        private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        @Test
+        public void status_is_replaced_by_its_class_if_it_is_not_an_exact_status_code(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                sendGetRequest("/no-class-annotation/no-method-annotation");
+
+                assertTimerPresentWithTag("status", "2xx");
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void exact_status_code_is_used_as_status(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                sendGetRequest(
+                    "/no-class-annotation/method/throws/WebApplicationException/404"
+                );
+
+                assertTimerPresentWithTag("status", "404");
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void measurement_is_tagged_with_outcome(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                sendGetRequest(
+                    "/no-class-annotation/method/throws/WebApplicationException/404"
+                );
+
+                assertTimerPresentWithTag("outcome", "CLIENT_ERROR");
+            } finally {
+                server.stop();
+            }
+        }
+
+        private Server startServer(
+        ) throws Exception {
+            AbstractModule module = createModule(
+                registry,
+                new Configuration()
+                    .withOutcomeTag()
+                    .withExactStatusCodes(404)
+            );
+            return startServerWithModule(module);
+        }
+
+        private void assertTimerPresentWithTag(String key, String value) {
+            RequiredSearch.in(registry)
+                .tag(key, value)
+                .timer(); //throws an exception if no matching timer is present
+        }
+    }
+
+    public static class about_exception_tag {
+        private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        @Test
+        public void measurement_is_tagged_with_None_if_no_exception_is_thrown(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                sendGetRequest("/no-class-annotation/no-method-annotation");
+
+                assertTimerPresentWithTag("exception", "None");
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void measurement_is_tagged_with_simple_class_name_of_exception(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                sendGetRequest("/no-class-annotation/method/throws/Exception");
+
+                assertTimerPresentWithTag("exception", "Exception");
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void measurement_is_tagged_with_other_if_maximum_is_reached(
+        ) throws Exception {
+            AbstractModule module = createModule(
+                registry,
+                new Configuration().withExceptionTag(1)
+            );
+            Server server = startServerWithModule(module);
+            try {
+                sendGetRequest("/no-class-annotation/method/throws/Exception");
+                sendGetRequest(
+                    "/no-class-annotation/method/throws/WebApplicationException/404"
+                );
+
+                assertTimerPresentWithTag("exception", "[other]");
+            } finally {
+                server.stop();
+            }
+        }
+
+        private Server startServer(
+        ) throws Exception {
+            AbstractModule module = createModule(
+                registry,
+                new Configuration().withExceptionTag()
+            );
+            return startServerWithModule(module);
+        }
+
+        private void assertTimerPresentWithTag(String key, String value) {
+            RequiredSearch.in(registry)
+                .tag(key, value)
+                .timer(); //throws an exception if no matching timer is present
+        }
+    }
+
+    public static class about_eager_registration {
+        private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        @Test
+        public void timers_are_registered_at_startup(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                RequiredSearch.in(registry)
+                    .name("http.server.requests")
+                    .tag("uri", "/no-class-annotation/no-method-annotation")
+                    .timer(); //throws an exception if the timer is not present
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void startup_time_is_recorded(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                Timer initTimer = RequiredSearch.in(registry)
+                    .name("jersey.micrometer.init")
+                    .timer();
+                assertTrue(initTimer.count() > 0);
+            } finally {
+                server.stop();
+            }
+        }
+
+        private Server startServer(
+        ) throws Exception {
+            AbstractModule module = createModule(
+                registry,
+                new Configuration().withEagerRegistration()
+            );
+            return startServerWithModule(module);
+        }
+    }
+
+    public static class about_active_requests {
+        private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        @Test
+        public void active_requests_are_zero_after_request_has_finished(
+        ) throws Exception {
+            AbstractModule module = createModule(
+                registry,
+                new Configuration().withActiveRequests()
+            );
+            Server server = startServerWithModule(module);
+            try {
+                sendGetRequest("/no-class-annotation/no-method-annotation");
+
+                assertEquals(
+                    0d,
+                    RequiredSearch.in(registry)
+                        .name("http.server.requests.active")
+                        .tag("uri", "/no-class-annotation/no-method-annotation")
+                        .gauge()
+                        .value(),
+                    0d
+                );
+            } finally {
+                server.stop();
+            }
+        }
+    }
+
+    public static class about_payload_sizes {
+        private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        @Test
+        public void size_of_response_entity_is_recorded(
+        ) throws Exception {
+            AbstractModule module = createModule(
+                registry,
+                new Configuration().withPayloadSizes()
+            );
+            Server server = startServerWithModule(module);
+            try {
+                sendGetRequest("/no-class-annotation/no-method-annotation");
+
+                DistributionSummary summary = awaitSummary(
+                    "http.server.responses.size"
+                );
+                assertEquals(2d, summary.totalAmount(), 0d); //"ok"
+            } finally {
+                server.stop();
+            }
+        }
+
+        //The client may receive the response before the server has finished
+        //writing it.
+        private DistributionSummary awaitSummary(
+            String name
+        ) throws InterruptedException {
+            for (int i = 0; i < 100; ++i) {
+                DistributionSummary summary = registry.find(name).summary();
+                if (summary != null && summary.count() > 0) {
+                    return summary;
+                }
+                Thread.sleep(10);
+            }
+            fail("No value has been recorded by " + name + ".");
+            return null;
+        }
+    }
+
+    public static class about_resource_usage {
+        private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        @Test
+        public void allocated_memory_is_recorded(
+        ) throws Exception {
+            assumeTrue(isThreadAllocatedMemorySupported());
+            AbstractModule module = createModule(
+                registry,
+                new Configuration().withResourceUsage()
+            );
+            Server server = startServerWithModule(module);
+            try {
+                sendGetRequest("/no-class-annotation/no-method-annotation");
+
+                DistributionSummary summary = RequiredSearch.in(registry)
+                    .name("http.server.requests.allocated")
+                    .tag("uri", "/no-class-annotation/no-method-annotation")
+                    .tag("status", "200")
+                    .summary();
+                assertEquals(1, summary.count());
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void disabled_measurement_is_neither_enabled_nor_recorded(
+        ) throws Exception {
+            assumeTrue(isThreadAllocatedMemorySupported());
+            com.sun.management.ThreadMXBean bean
+                = (com.sun.management.ThreadMXBean)
+                    ManagementFactory.getThreadMXBean();
+            bean.setThreadAllocatedMemoryEnabled(false);
+            try {
+                AbstractModule module = createModule(
+                    registry,
+                    new Configuration().withResourceUsage()
+                );
+                Server server = startServerWithModule(module);
+                try {
+                    sendGetRequest(
+                        "/no-class-annotation/no-method-annotation"
+                    );
+                } finally {
+                    server.stop();
+                }
+
+                assertFalse(bean.isThreadAllocatedMemoryEnabled());
+                assertTrue(
+                    registry.find("http.server.requests.allocated")
+                        .summaries()
+                        .isEmpty()
+                );
+            } finally {
+                bean.setThreadAllocatedMemoryEnabled(true);
+            }
+        }
+
+        @Test
+        public void resource_usage_is_not_recorded_by_default(
+        ) throws Exception {
+            Server server = startServer(registry);
+            try {
+                sendGetRequest("/no-class-annotation/no-method-annotation");
+
+                assertEquals(
+                    0,
+                    registry.find("http.server.requests.allocated")
+                        .summaries()
+                        .size()
+                );
+            } finally {
+                server.stop();
+            }
+        }
+
+        private boolean isThreadAllocatedMemorySupported() {
+            return ManagementFactory.getThreadMXBean()
+                instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean)
+                    ManagementFactory.getThreadMXBean())
+                    .isThreadAllocatedMemorySupported();
+        }
+    }
+
+    public static class about_adaptive_shedding {
+        //Reading the clock takes a millisecond, so the instrumentation of
+        //each request costs a few milliseconds.
+        private final SimpleMeterRegistry registry = new SimpleMeterRegistry(
+            SimpleConfig.DEFAULT,
+            new Clock() {
+                private final AtomicLong nanos = new AtomicLong();
+
+                @Override
+                public long wallTime() {
+                    return NANOSECONDS.toMillis(nanos.get());
+                }
+
+                @Override
+                public long monotonicTime() {
+                    return nanos.addAndGet(MILLISECONDS.toNanos(1));
+                }
+            }
+        );
+
+        @Test
+        public void detail_is_reduced_when_instrumentation_is_too_expensive(
+        ) throws Exception {
+            Server server = startServerWithAdapter(
+                new MicrometerDispatchAdapter(
+                    registry,
+                    new Configuration()
+                        .withAdaptiveShedding(Duration.ofMillis(1))
+                )
+            );
+            try {
+                for (int i = 0; i < 1_500; ++i) {
+                    sendGetRequest("/no-class-annotation/enabled-on-method");
+                }
+
+                assertTrue(
+                    RequiredSearch.in(registry)
+                        .name("jersey.micrometer.instrumentation.level")
+                        .gauge()
+                        .value() < 3
+                );
+                assertTrue(
+                    RequiredSearch.in(registry)
+                        .name("http.server.requests.reduced")
+                        .functionTimer()
+                        .count() > 0
+                );
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void detail_is_kept_when_instrumentation_is_cheap(
+        ) throws Exception {
+            Server server = startServerWithAdapter(
+                new MicrometerDispatchAdapter(
+                    registry,
+                    new Configuration()
+                        .withAdaptiveShedding(Duration.ofSeconds(1))
+                )
+            );
+            try {
+                for (int i = 0; i < 1_500; ++i) {
+                    sendGetRequest("/no-class-annotation/enabled-on-method");
+                }
+
+                assertEquals(
+                    3d,
+                    RequiredSearch.in(registry)
+                        .name("jersey.micrometer.instrumentation.level")
+                        .gauge()
+                        .value(),
+                    0d
+                );
+                assertNull(
+                    Search.in(registry)
+                        .name("http.server.requests.reduced")
+                        .functionTimer()
+                );
+            } finally {
+                server.stop();
+            }
+        }
+    }
+
+    public static class about_sampling {
+        private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        @Test
+        public void every_request_is_counted_when_requests_are_sampled(
+        ) throws Exception {
+            Server server = startServer(registry);
+            try {
+                for (int i = 0; i < 20; ++i) {
+                    sendGetRequest("/no-class-annotation/sampled");
+                }
+
+                assertEquals(
+                    20d,
+                    RequiredSearch.in(registry)
+                        .name("http.server.requests")
+                        .functionTimer()
+                        .count(),
+                    0d
+                );
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void timed_requests_are_recorded_by_companion_timer(
+        ) throws Exception {
+            Server server = startServer(registry);
+            try {
+                for (int i = 0; i < 100; ++i) {
+                    sendGetRequest("/no-class-annotation/sampled");
+                }
+
+                long timedRequests = RequiredSearch.in(registry)
+                    .name("http.server.requests.sampled")
+                    .timer()
+                    .count();
+                assertTrue(timedRequests > 0 && timedRequests < 100);
+            } finally {
+                server.stop();
+            }
+        }
+    }
+
+    public static class about_bootstrap_without_guice {
+        private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        @Test
+        public void request_is_measured_by_dispatch_adapter(
+        ) throws Exception {
+            Server server = startServerWithAdapter(
+                new MicrometerDispatchAdapter(registry, new Configuration())
+            );
+            try {
+                sendGetRequest("/no-class-annotation/no-method-annotation");
+
+                assertEquals(
+                    1,
+                    RequiredSearch.in(registry)
+                        .name("http.server.requests")
+                        .tag("uri", "/no-class-annotation/no-method-annotation")
+                        .timer()
+                        .count()
+                );
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void adapter_is_a_provider_of_default_resource_config(
+        ) throws Exception {
+            MicrometerDispatchAdapter adapter = new MicrometerDispatchAdapter(
+                registry,
+                new Configuration()
+            );
+            DefaultResourceConfig config = new DefaultResourceConfig(
+                NoAnnotationOnClass.class
+            );
+            config.getSingletons().add(adapter);
+
+            assertTrue(config.getProviderSingletons().contains(adapter));
+            assertTrue(config.getRootResourceSingletons().isEmpty());
+            Server server = startServerWithResourceConfig(config);
+            try {
+                sendGetRequest("/no-class-annotation/no-method-annotation");
+
+                assertEquals(
+                    1,
+                    RequiredSearch.in(registry)
+                        .name("http.server.requests")
+                        .timer()
+                        .count()
+                );
+            } finally {
+                server.stop();
+                adapter.close();
+            }
+        }
+    }
+
+    public static class about_async_recording {
+        private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        @Test
+        public void request_is_recorded_by_background_thread(
+        ) throws Exception {
+            MicrometerDispatchAdapter adapter = new MicrometerDispatchAdapter(
+                registry,
+                new Configuration().withAsyncRecording(1024)
+            );
+            Server server = startServerWithAdapter(adapter);
+            try {
+                sendGetRequest("/no-class-annotation/no-method-annotation");
+            } finally {
+                server.stop();
+            }
+            //records the events that are still in the queue
+            adapter.close();
+
+            assertEquals(
+                1,
+                RequiredSearch.in(registry)
+                    .name("http.server.requests")
+                    .tag("uri", "/no-class-annotation/no-method-annotation")
+                    .timer()
+                    .count()
+            );
+        }
+    }
+
+    public static class about_cardinality_limits {
+        private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        @Test
+        public void methods_whose_uri_is_replaced_share_function_timer(
+        ) throws Exception {
+            Server server = startServerWithAdapter(
+                new MicrometerDispatchAdapter(
+                    registry,
+                    new Configuration()
+                        .withSampleRate(2)
+                        .withMaximumUris(0)
+                )
+            );
+            try {
+                sendGetRequest("/no-class-annotation/no-method-annotation");
+                sendGetRequest("/no-class-annotation/enabled-on-method");
+
+                assertEquals(
+                    2,
+                    RequiredSearch.in(registry)
+                        .name("http.server.requests")
+                        .tag("uri", UriCardinalityFilter.OTHER)
+                        .functionTimer()
+                        .count(),
+                    0.0
+                );
+            } finally {
+                server.stop();
+            }
+        }
+    }
+
+    public static class about_meter_limits {
+        private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        @Test
+        public void meters_beyond_maximum_are_not_registered(
+        ) throws Exception {
+            Server server = startServerWithAdapter(
+                new MicrometerDispatchAdapter(
+                    registry,
+                    new Configuration().withMaximumMeters(1)
+                )
+            );
+            try {
+                sendGetRequest("/no-class-annotation/no-method-annotation");
+                sendGetRequest("/no-class-annotation/enabled-on-method");
+
+                assertEquals(
+                    1,
+                    registry.find("http.server.requests").timers().size()
+                );
+                assertEquals(
+                    1d,
+                    RequiredSearch.in(registry)
+                        .name("jersey.micrometer.meters.rejected")
+                        .functionCounter()
+                        .count(),
+                    0d
+                );
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void meters_of_other_libraries_are_not_limited(
+        ) throws Exception {
+            Server server = startServerWithAdapter(
+                new MicrometerDispatchAdapter(
+                    registry,
+                    new Configuration()
+                        .withMaximumUris(0)
+                        .withMaximumMeters(0)
+                )
+            );
+            try {
+                registry.timer("http.server.requests", "uri", "/other")
+                    .record(1, MILLISECONDS);
+
+                assertEquals(
+                    1,
+                    RequiredSearch.in(registry)
+                        .name("http.server.requests")
+                        .tag("uri", "/other")
+                        .timer()
+                        .count()
+                );
+            } finally {
+                server.stop();
+            }
+        }
+    }
+
+    public static class about_runtime_control {
+        private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        private final MicrometerDispatchAdapter adapter
+            = new MicrometerDispatchAdapter(
+                registry,
+                new Configuration().withRuntimeControl()
+            );
+
+        @After
+        public void closeAdapter(
+        ) {
+            adapter.close();
+        }
+
+        @Test
+        public void mbean_is_unregistered_when_adapter_is_closed(
+        ) throws Exception {
+            int mbeansBefore = instrumentationControlMBeans();
+
+            adapter.close();
+
+            assertEquals(mbeansBefore - 1, instrumentationControlMBeans());
+        }
+
+        private int instrumentationControlMBeans(
+        ) throws Exception {
+            return ManagementFactory.getPlatformMBeanServer()
+                .queryNames(
+                    new ObjectName(
+                        "com.github.stefanbirkner.micrometer.jersey:"
+                            + "type=InstrumentationControl,*"
+                    ),
+                    null
+                )
+                .size();
+        }
+
+        @Test
+        public void disabled_method_can_be_switched_on(
+        ) throws Exception {
+            Server server = startServerWithAdapter(adapter);
+            try {
+                sendGetRequest("/no-class-annotation/disabled-on-method");
+                adapter.getInstrumentationControl().setLevel(
+                    "GET",
+                    "/no-class-annotation/disabled-on-method",
+                    "FULL"
+                );
+                sendGetRequest("/no-class-annotation/disabled-on-method");
+
+                assertEquals(
+                    1,
+                    RequiredSearch.in(registry)
+                        .name("http.server.requests")
+                        .tag("uri", "/no-class-annotation/disabled-on-method")
+                        .timer()
+                        .count()
+                );
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void disabled_method_does_not_register_meters(
+        ) throws Exception {
+            Server server = startServerWithAdapter(adapter);
+            try {
+                sendGetRequest("/no-class-annotation/disabled-on-method");
+
+                assertTrue(
+                    Search.in(registry)
+                        .tag("uri", "/no-class-annotation/disabled-on-method")
+                        .meters()
+                        .isEmpty()
+                );
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void method_can_be_switched_off(
+        ) throws Exception {
+            Server server = startServerWithAdapter(adapter);
+            try {
+                adapter.getInstrumentationControl()
+                    .setLevelOfAllMethods("OFF");
+                sendGetRequest("/no-class-annotation/no-method-annotation");
+
+                assertTrue(
+                    registry.find("http.server.requests").meters().isEmpty()
+                );
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void histogram_is_not_recorded_at_level_timer(
+        ) throws Exception {
+            Server server = startServerWithAdapter(adapter);
+            try {
+                adapter.getInstrumentationControl()
+                    .setLevelOfAllMethods("TIMER");
+                sendGetRequest("/no-class-annotation/no-method-annotation");
+
+                assertEquals(
+                    1d,
+                    RequiredSearch.in(registry)
+                        .name("http.server.requests.reduced")
+                        .functionTimer()
+                        .count(),
+                    0d
+                );
+                assertNull(registry.find("http.server.requests").meter());
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void levels_are_listed(
+        ) throws Exception {
+            Server server = startServerWithAdapter(adapter);
+            try {
+                sendGetRequest("/no-class-annotation/disabled-on-method");
+                sendGetRequest("/no-class-annotation/no-method-annotation");
+
+                Map<String, String> levels
+                    = adapter.getInstrumentationControl().getLevels();
+
+                assertEquals(
+                    "OFF",
+                    levels.get("GET /no-class-annotation/disabled-on-method")
+                );
+                assertEquals(
+                    "FULL",
+                    levels.get("GET /no-class-annotation/no-method-annotation")
+                );
+            } finally {
+                server.stop();
+            }
+        }
+    }
+
+    public static class measurement_enabled_by_default {
+        private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        @Test
+        public void request_is_measured_when_no_annotation_is_present(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                sendGetRequest("/no-class-annotation/no-method-annotation");
+
+                assertSingleMeasurement(registry);
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void request_is_measured_when_enabled_on_class(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                sendGetRequest("/enabled-on-class/no-method-annotation");
+
+                assertSingleMeasurement(registry);
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void request_is_not_measured_when_disabled_on_class(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                sendGetRequest("/disabled-on-class/no-method-annotation");
+
+                assertNoMeasurement(registry);
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void request_is_measured_when_enabled_on_method(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                sendGetRequest("/no-class-annotation/enabled-on-method");
+
+                assertSingleMeasurement(registry);
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void request_is_not_measured_when_disabled_on_method(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                sendGetRequest("/no-class-annotation/disabled-on-method");
+
+                assertNoMeasurement(registry);
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void request_is_measured_when_enabled_on_class_and_method(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                sendGetRequest("/enabled-on-class/enabled-on-method");
+
+                assertSingleMeasurement(registry);
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void request_is_not_measured_when_enabled_on_class_but_disabled_on_method(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                sendGetRequest("/enabled-on-class/disabled-on-method");
+
+                assertNoMeasurement(registry);
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void request_is_measured_when_disabled_on_class_but_enabled_on_method(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                sendGetRequest("/disabled-on-class/enabled-on-method");
+
+                assertSingleMeasurement(registry);
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void request_is_not_measured_when_disabled_on_class_and_method(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                sendGetRequest("/disabled-on-class/disabled-on-method");
+
+                assertNoMeasurement(registry);
+            } finally {
+                server.stop();
+            }
+        }
+
+        private Server startServer(
+        ) throws Exception {
+            return FullStackTest.startServer(registry);
+        }
+    }
+
+    public static class measurement_disabled_by_default {
+        private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        @Test
+        public void request_is_not_measured_when_no_annotation_is_present(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                sendGetRequest("/no-class-annotation/no-method-annotation");
+
+                assertNoMeasurement(registry);
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void request_is_measured_when_enabled_on_class(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                sendGetRequest("/enabled-on-class/no-method-annotation");
+
+                assertSingleMeasurement(registry);
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void request_is_not_measured_when_disabled_on_class(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                sendGetRequest("/disabled-on-class/no-method-annotation");
+
+                assertNoMeasurement(registry);
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void request_is_measured_when_enabled_on_method(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                sendGetRequest("/no-class-annotation/enabled-on-method");
+
+                assertSingleMeasurement(registry);
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void request_is_not_measured_when_disabled_on_method(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                sendGetRequest("/no-class-annotation/disabled-on-method");
+
+                assertNoMeasurement(registry);
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void request_is_measured_when_enabled_on_class_and_method(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                sendGetRequest("/enabled-on-class/enabled-on-method");
+
+                assertSingleMeasurement(registry);
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void request_is_not_measured_when_enabled_on_class_but_disabled_on_method(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                sendGetRequest("/enabled-on-class/disabled-on-method");
+
+                assertNoMeasurement(registry);
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void request_is_measured_when_disabled_on_class_but_enabled_on_method(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                sendGetRequest("/disabled-on-class/enabled-on-method");
+
+                assertSingleMeasurement(registry);
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void request_is_not_measured_when_disabled_on_class_and_method(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                sendGetRequest("/disabled-on-class/disabled-on-method");
+
+                assertNoMeasurement(registry);
+            } finally {
+                server.stop();
+            }
+        }
+
+        private Server startServer(
+        ) throws Exception {
+            AbstractModule module = createModule(
+                registry,
+                new Configuration().disabledByDefault()
+            );
+            return startServerWithModule(module);
+        }
+    }
+
+    public static class response_status {
+        private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        @Test
+        public void response_has_status_returned_by_method_when_no_exception_is_thrown(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                int status = FullStackTest.sendGetRequest(
+                    "/no-class-annotation/no-method-annotation"
+                );
+
+                assertEquals(status, 200);
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void response_has_status_of_WebApplicationException_when_thrown(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                int status = FullStackTest.sendGetRequest(
+                    "/no-class-annotation/method/throws/WebApplicationException/404"
+                );
+
+                assertEquals(status, 404);
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        public void response_has_status_500_when_an_arbitrary_exception_is_thrown(
+        ) throws Exception {
+            Server server = startServer();
+            try {
+                int status = FullStackTest.sendGetRequest(
+                    "/no-class-annotation/method/throws/Exception"
+                );
+
+                assertEquals(status, 500);
+            } finally {
+                server.stop();
+            }
+        }
+
+        private Server startServer(
+        ) throws Exception {
+            return FullStackTest.startServer(
+                registry
+            );
+        }
+    }
+
+    private static Server startServer(
+        MeterRegistry registry
+    ) throws Exception {
+        AbstractModule module = createModule(registry);
+        return startServerWithModule(module);
+    }
+
+    private static Server startServerWithAdapter(
+        MicrometerDispatchAdapter adapter
+    ) throws Exception {
+        DefaultResourceConfig config = new DefaultResourceConfig(
+            NoAnnotationOnClass.class
+        );
+        config.getSingletons().add(adapter);
+        return startServerWithResourceConfig(config);
+    }
+
+    private static Server startServerWithResourceConfig(
+        DefaultResourceConfig config
+    ) throws Exception {
+        Server server = new Server(PORT);
+        ServletContextHandler servletHandler = new ServletContextHandler();
+        servletHandler.addServlet(
+            new ServletHolder(new ServletContainer(config)),
+            "/*"
+        );
+        server.setHandler(servletHandler);
+        server.start();
+        return server;
+    }
+
+    private static Server startServerWithModule(
+        AbstractModule module
+    ) throws Exception {
+        GuiceFilter guiceFilter = createInjector(module)
+            .getInstance(GuiceFilter.class);
+        Server server = createServer(guiceFilter);
+        server.start();
+        return server;
+    }
+
+    private static AbstractModule createModule(
+        MeterRegistry registry
+    ) {
+        return createModule(
+            registry,
+            null
+        );
+    }
+
+    private static AbstractModule createModule(
+        MeterRegistry registry,
+        Configuration configuration
+    ) {
+        return new AbstractModule() {
+            @Override
+            protected void configure() {
+                install(new ResourceMethodWrappedDispatchModule());
+                install(new ServletModule() {
+                    @Override
+                    protected void configureServlets() {
+                        serve("/*").with(GuiceContainer.class);
+                    }
+                });
+                install(new JerseyServletModule());
+                bind(GuiceFilter.class);
+                bind(GuiceContainer.class);
+                bind(DisabledOnClass.class);
+                bind(EnabledOnClass.class);
+                bind(NoAnnotationOnClass.class);
+
+                if (configuration != null) {
+                    bind(Configuration.class).toInstance(configuration);
+                }
+                install(new ResourceMethodMicrometerModule());
+                bind(MeterRegistry.class)
+                    .annotatedWith(JerseyResourceMicrometer.class)
+                    .toInstance(registry);
+            }
+        };
+    }
+
+    private static Server createServer(
+        GuiceFilter filter
+    ) {
+        Server server = new Server(PORT);
+        ServletContextHandler servletHandler = new ServletContextHandler();
+
+        servletHandler.addServlet(new ServletHolder(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                resp.setContentType("text/plain");
+                resp.setContentType("UTF-8");
+                resp.getWriter().append("404");
+            }
+        }), "/*");
+
+        // add guice servlet filter
+        servletHandler.addFilter(new FilterHolder(filter), "/*", EnumSet.allOf(DispatcherType.class));
+
+        server.setHandler(servletHandler);
+
+        return server;
+    }
+
+    private static int sendGetRequest(
+        String path
+    ) throws IOException {
+        URL url = new URL("http://localhost:" + PORT + path);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        return connection.getResponseCode();
+    }
+
+    private static void assertNoMeasurement(
+        MeterRegistry registry
+    ) {
+        assertEquals(
+            0,
+            registry.getMeters().size()
+        );
+    }
+
+    private static void assertSingleMeasurement(
+        MeterRegistry registry
+    ) {
+        assertEquals(
+            1,
+            registry.getMeters().size()
+        );
+    }
+}
@@ -0,0 +1,146 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import com.sun.jersey.api.core.HttpContext;
+import com.sun.jersey.spi.container.ContainerResponseWriter;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.search.RequiredSearch;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MeteredResponseWriterTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Endpoint endpoint = Endpoint.builder(
+            new StatusTimers(
+                Tags.of("method", "GET", "uri", "/dummy"),
+                StatusTags.EXACT,
+                ExceptionTags.DISABLED,
+                DirectRequestTimer.registeredIn(
+                    registry,
+                    DistributionSettings.NONE
+                )
+            ),
+            registry.config().clock()
+        )
+        .timedUntilCommit(true)
+        .build();
+    private final Map<String, Object> properties = new HashMap<>();
+    private final HttpContext context = proxy(
+        HttpContext.class,
+        (methodName, args) -> {
+            if (methodName.equals("getProperties")) {
+                return properties;
+            }
+            throw new UnsupportedOperationException(methodName);
+        }
+    );
+
+    @Test
+    public void request_is_recorded_with_unknown_status_when_writing_status_fails(
+    ) {
+        ContainerResponseWriter failingWriter = proxy(
+            ContainerResponseWriter.class,
+            (methodName, args) -> {
+                throw new IOException("dummy failure");
+            }
+        );
+        MeteredResponseWriter writer = new MeteredResponseWriter(
+            failingWriter,
+            context,
+            endpoint
+        );
+        endpoint.rememberStart(writer, true, 0L);
+
+        try {
+            writer.writeStatusAndHeaders(0, null);
+            fail("The exception has not been rethrown.");
+        } catch (IOException e) {
+            assertEquals("dummy failure", e.getMessage());
+        }
+
+        assertEquals(
+            1,
+            RequiredSearch.in(registry)
+                .tag("status", "unknown")
+                .timer()
+                .count()
+        );
+    }
+
+    @Test
+    public void request_is_recorded_with_unknown_status_when_response_is_not_written(
+    ) throws Exception {
+        ContainerResponseWriter noOpWriter = proxy(
+            ContainerResponseWriter.class,
+            (methodName, args) -> null
+        );
+        MeteredResponseWriter writer = new MeteredResponseWriter(
+            noOpWriter,
+            context,
+            endpoint
+        );
+        endpoint.rememberStart(writer, true, 0L);
+
+        writer.finish();
+
+        assertEquals(
+            1,
+            RequiredSearch.in(registry)
+                .tag("status", "unknown")
+                .timer()
+                .count()
+        );
+        assertTrue(properties.isEmpty());
+    }
+
+    @Test
+    public void request_is_recorded_only_once_when_response_is_finished_twice(
+    ) throws Exception {
+        ContainerResponseWriter noOpWriter = proxy(
+            ContainerResponseWriter.class,
+            (methodName, args) -> null
+        );
+        MeteredResponseWriter writer = new MeteredResponseWriter(
+            noOpWriter,
+            context,
+            endpoint
+        );
+        endpoint.rememberStart(writer, true, 0L);
+
+        writer.finish();
+        writer.finish();
+
+        assertEquals(
+            1,
+            RequiredSearch.in(registry).timer().count()
+        );
+    }
+
+    private static <T> T proxy(
+        Class<T> type,
+        Answer answer
+    ) {
+        return type.cast(
+            Proxy.newProxyInstance(
+                MeteredResponseWriterTest.class.getClassLoader(),
+                new Class<?>[] { type },
+                (proxy, method, args) -> answer.answer(method.getName(), args)
+            )
+        );
+    }
+
+    private interface Answer {
+        Object answer(
+            String methodName,
+            Object[] args
+        ) throws Throwable;
+    }
+}
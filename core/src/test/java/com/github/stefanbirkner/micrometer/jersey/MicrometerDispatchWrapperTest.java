@@ -0,0 +1,134 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import com.palominolabs.jersey.dispatchwrapper.ResourceMethodDispatchWrapperChain;
+import com.sun.jersey.api.core.HttpContext;
+import com.sun.jersey.api.core.HttpResponseContext;
+import com.sun.management.ThreadMXBean;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.search.RequiredSearch;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+public class MicrometerDispatchWrapperTest {
+    private static final int INVOCATIONS = 100_000;
+    // boxed only once so that the proxy does not allocate
+    private static final Integer STATUS_OK = 200;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final MicrometerDispatchWrapper wrapper
+        = new MicrometerDispatchWrapper(
+            registry.config().clock(),
+            EndpointResolver.fixed(
+                Endpoint.builder(
+                    new StatusTimers(
+                        Tags.of("method", "GET", "uri", "/dummy"),
+                        StatusTags.EXACT,
+                        ExceptionTags.DISABLED,
+                        DirectRequestTimer.registeredIn(
+                            registry,
+                            DistributionSettings.NONE
+                        )
+                    ),
+                    registry.config().clock()
+                ).build()
+            )
+        );
+    private final Object resource = new Object();
+    private final HttpContext context = httpContextWithStatusOk();
+    private final ResourceMethodDispatchWrapperChain chain
+        = (resource, context) -> {};
+
+    @Test
+    public void wrapper_does_not_allocate_memory_in_steady_state(
+    ) {
+        ThreadMXBean threadMXBean
+            = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        invokeWrapper(); //warm up
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        invokeWrapper();
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId)
+            - before;
+
+        //A single allocation per invocation would be at least 16 bytes.
+        //Everything below a byte per invocation is measurement noise.
+        assertTrue(
+            "Wrapper allocated " + allocated + " bytes for "
+                + INVOCATIONS + " invocations.",
+            allocated < INVOCATIONS
+        );
+    }
+
+    @Test
+    public void request_is_recorded_when_resource_method_throws_an_error(
+    ) {
+        try {
+            wrapper.wrapDispatch(
+                resource,
+                context,
+                (resource, context) -> {
+                    throw new Error("dummy error");
+                }
+            );
+            fail("The error has not been rethrown.");
+        } catch (Error e) {
+            assertEquals("dummy error", e.getMessage());
+        }
+
+        assertEquals(
+            1,
+            RequiredSearch.in(registry)
+                .tag("status", "unknown")
+                .timer()
+                .count()
+        );
+    }
+
+    private void invokeWrapper() {
+        for (int i = 0; i < INVOCATIONS; ++i) {
+            wrapper.wrapDispatch(resource, context, chain);
+        }
+    }
+
+    private static HttpContext httpContextWithStatusOk() {
+        HttpResponseContext response = proxy(
+            HttpResponseContext.class,
+            "getStatus",
+            STATUS_OK
+        );
+        return proxy(HttpContext.class, "getResponse", response);
+    }
+
+    private static <T> T proxy(
+        Class<T> type,
+        String methodName,
+        Object returnValue
+    ) {
+        return type.cast(
+            Proxy.newProxyInstance(
+                MicrometerDispatchWrapperTest.class.getClassLoader(),
+                new Class<?>[] { type },
+                (proxy, method, args) -> {
+                    if (method.getName().equals(methodName)) {
+                        return returnValue;
+                    } else {
+                        throw new UnsupportedOperationException(
+                            method.getName()
+                        );
+                    }
+                }
+            )
+        );
+    }
+}
@@ -1,12 +1,18 @@
 package com.github.stefanbirkner.micrometer.jersey;
 
+import io.micrometer.core.instrument.MockClock;
+
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.WebApplicationException;
 
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
 @Path("no-class-annotation")
 public class NoAnnotationOnClass {
+    static final MockClock CLOCK = new MockClock();
+
     @GET
     @Path("disabled-on-method")
     @ResourceMetrics(enabled = false)
@@ -59,4 +65,31 @@ public class NoAnnotationOnClass {
     ) throws Exception {
         throw new Exception();
     }
+
+    @GET
+    @Path("advances-clock")
+    @ResourceMetrics
+    public String advancesClock() {
+        CLOCK.add(250, MICROSECONDS);
+        return "ok";
+    }
+
+    @GET
+    @Path("with-service-level-objective")
+    @ResourceMetrics(serviceLevelObjectives = "50ms")
+    public String withServiceLevelObjective() {
+        return "ok";
+    }
+
+    @GET
+    @Path("sampled")
+    @ResourceMetrics(sampleRate = 4)
+    public String sampled() {
+        return "ok";
+    }
+
+    @Path("locator/{id}")
+    public SubResource locator() {
+        return new SubResource();
+    }
 }
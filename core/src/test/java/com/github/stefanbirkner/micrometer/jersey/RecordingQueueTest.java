@@ -0,0 +1,97 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RecordingQueueTest {
+    private final List<String> events = new ArrayList<>();
+
+    @Test
+    public void capacity_is_rounded_up_to_power_of_two(
+    ) {
+        assertEquals(8, new RecordingQueue(5).capacity());
+    }
+
+    @Test
+    public void events_are_drained_in_order(
+    ) {
+        RecordingQueue queue = new RecordingQueue(4);
+        queue.offer(1, 10);
+        queue.offer(2, 20);
+
+        queue.drain(this::collect, 10);
+
+        assertEquals(asList("1:10", "2:20"), events);
+    }
+
+    @Test
+    public void event_is_rejected_when_queue_is_full(
+    ) {
+        RecordingQueue queue = new RecordingQueue(2);
+        assertTrue(queue.offer(1, 10));
+        assertTrue(queue.offer(1, 20));
+
+        assertFalse(queue.offer(1, 30));
+    }
+
+    @Test
+    public void slots_are_reused_after_drain(
+    ) {
+        RecordingQueue queue = new RecordingQueue(2);
+        queue.offer(1, 10);
+        queue.offer(1, 20);
+        queue.drain(this::collect, 10);
+
+        assertTrue(queue.offer(1, 30));
+    }
+
+    @Test
+    public void drain_stops_after_max_events(
+    ) {
+        RecordingQueue queue = new RecordingQueue(4);
+        queue.offer(1, 10);
+        queue.offer(2, 20);
+
+        int drained = queue.drain(this::collect, 1);
+
+        assertEquals(1, drained);
+        assertEquals(asList("1:10"), events);
+    }
+
+    @Test
+    public void events_of_concurrent_producers_are_not_lost(
+    ) throws Exception {
+        RecordingQueue queue = new RecordingQueue(4 * 10_000);
+        Thread[] producers = new Thread[4];
+        for (int p = 0; p < producers.length; ++p) {
+            int index = p;
+            producers[p] = new Thread(() -> {
+                for (int i = 0; i < 10_000; ++i) {
+                    queue.offer(index, i);
+                }
+            });
+            producers[p].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        int drained = queue.drain((index, value) -> {}, Integer.MAX_VALUE);
+
+        assertEquals(40_000, drained);
+    }
+
+    private void collect(
+        int index,
+        long value
+    ) {
+        events.add(index + ":" + value);
+    }
+}
@@ -0,0 +1,166 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import io.micrometer.core.instrument.search.RequiredSearch;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ResourceMethodMetersFactoryTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    public void request_is_recorded_with_method_uri_and_status(
+    ) {
+        ResourceMethodMetersFactory factory = new ResourceMethodMetersFactory(
+            registry,
+            new Configuration()
+        );
+
+        factory.create("GET", "/users/{id}", null).record(200, null, 1_000);
+
+        assertEquals(
+            1,
+            RequiredSearch.in(registry)
+                .name("http.server.requests")
+                .tag("method", "GET")
+                .tag("uri", "/users/{id}")
+                .tag("status", "200")
+                .timer()
+                .count()
+        );
+    }
+
+    @Test
+    public void uri_is_replaced_after_maximum_number_of_uris(
+    ) {
+        ResourceMethodMetersFactory factory = new ResourceMethodMetersFactory(
+            registry,
+            new Configuration().withMaximumUris(1)
+        );
+
+        factory.create("GET", "/first", null).record(200, null, 1_000);
+        factory.create("GET", "/second", null).record(200, null, 1_000);
+
+        RequiredSearch.in(registry).tag("uri", "OTHER").timer();
+    }
+
+    @Test
+    public void striped_timer_is_created_by_factory(
+    ) {
+        ResourceMethodMetersFactory factory = new ResourceMethodMetersFactory(
+            registry,
+            new Configuration().withStripedTimers()
+        );
+
+        factory.create("GET", "/dummy", null).record(200, null, 1_000);
+
+        RequiredSearch.in(registry)
+            .name("http.server.requests.striped.max")
+            .gauge();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void active_requests_are_rejected(
+    ) {
+        new ResourceMethodMetersFactory(
+            registry,
+            new Configuration().withActiveRequests()
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void payload_sizes_are_rejected(
+    ) {
+        new ResourceMethodMetersFactory(
+            registry,
+            new Configuration().withPayloadSizes()
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void slow_request_log_is_rejected(
+    ) {
+        new ResourceMethodMetersFactory(
+            registry,
+            new Configuration().withSlowRequestLog(10, Duration.ofMinutes(1))
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void runtime_control_is_rejected(
+    ) {
+        new ResourceMethodMetersFactory(
+            registry,
+            new Configuration().withRuntimeControl()
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sla_of_annotation_is_rejected(
+    ) throws Exception {
+        ResourceMethodMetersFactory factory = new ResourceMethodMetersFactory(
+            registry,
+            new Configuration()
+        );
+
+        factory.create("GET", "/dummy", annotation("withSla"));
+    }
+
+    @Test
+    public void method_that_is_not_measured_may_have_an_sla(
+    ) throws Exception {
+        ResourceMethodMetersFactory factory = new ResourceMethodMetersFactory(
+            registry,
+            new Configuration()
+        );
+
+        assertNull(
+            factory.create("GET", "/dummy", annotation("disabledWithSla"))
+        );
+        assertTrue(registry.getMeters().isEmpty());
+    }
+
+    @Test
+    public void uri_is_built_from_templates_of_resources(
+    ) {
+        assertEquals(
+            "/users/{id}/orders",
+            ResourceMethodMetersFactory.uri(
+                Arrays.asList("/users/", null, "{id}", "/", "orders/")
+            )
+        );
+    }
+
+    @Test
+    public void uri_without_templates_is_no_path(
+    ) {
+        assertEquals(
+            "_no path_",
+            ResourceMethodMetersFactory.uri(Collections.singletonList("/"))
+        );
+    }
+
+    private static ResourceMetrics annotation(
+        String method
+    ) throws Exception {
+        return Annotated.class.getMethod(method)
+            .getAnnotation(ResourceMetrics.class);
+    }
+
+    public static class Annotated {
+        @ResourceMetrics(sla = "100ms")
+        public void withSla() {
+        }
+
+        @ResourceMetrics(enabled = false, sla = "100ms")
+        public void disabledWithSla() {
+        }
+    }
+}
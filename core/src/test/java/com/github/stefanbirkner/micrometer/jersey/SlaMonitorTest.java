@@ -0,0 +1,91 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.search.RequiredSearch;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SlaMonitorTest {
+    private static final long SLA = MILLISECONDS.toNanos(250);
+
+    private final MockClock clock = new MockClock();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<Double> notifiedRates = new ArrayList<>();
+    private final SlaMonitor monitor = new SlaMonitor(
+        registry,
+        Tags.of("method", "GET", "uri", "/dummy"),
+        Duration.ofNanos(SLA),
+        (method, uri, sla, breachRate) -> notifiedRates.add(breachRate),
+        0.1,
+        Duration.ofSeconds(1),
+        clock.monotonicTime()
+    );
+
+    @Test
+    public void breaches_are_counted(
+    ) {
+        monitor.record(SLA + 1, clock.monotonicTime());
+        monitor.record(SLA, clock.monotonicTime());
+
+        assertEquals(
+            1d,
+            RequiredSearch.in(registry)
+                .name("http.server.requests.sla.breaches")
+                .tag("uri", "/dummy")
+                .counter()
+                .count(),
+            0d
+        );
+    }
+
+    @Test
+    public void listener_is_notified_when_breach_rate_is_exceeded(
+    ) {
+        monitor.record(SLA + 1, clock.monotonicTime());
+        monitor.record(SLA, clock.monotonicTime());
+        clock.add(100, MILLISECONDS);
+
+        monitor.record(SLA, clock.monotonicTime());
+
+        assertEquals(1, notifiedRates.size());
+        assertEquals(1d / 3, notifiedRates.get(0), 0.0001);
+    }
+
+    @Test
+    public void listener_is_not_notified_when_breach_rate_is_not_exceeded(
+    ) {
+        monitor.record(SLA + 1, clock.monotonicTime());
+        for (int i = 0; i < 20; ++i) {
+            monitor.record(SLA, clock.monotonicTime());
+        }
+        clock.add(100, MILLISECONDS);
+
+        monitor.record(SLA, clock.monotonicTime());
+
+        assertTrue(notifiedRates.isEmpty());
+    }
+
+    @Test
+    public void breaches_outside_of_window_are_ignored(
+    ) {
+        monitor.record(SLA + 1, clock.monotonicTime());
+        clock.add(2, SECONDS);
+        monitor.record(SLA, clock.monotonicTime()); //closes the old bucket
+        notifiedRates.clear();
+        clock.add(100, MILLISECONDS);
+
+        monitor.record(SLA, clock.monotonicTime());
+
+        assertTrue(notifiedRates.isEmpty());
+    }
+}
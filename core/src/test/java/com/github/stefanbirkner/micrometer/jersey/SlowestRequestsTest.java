@@ -0,0 +1,198 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import com.sun.jersey.api.core.HttpContext;
+import com.sun.jersey.api.core.HttpRequestContext;
+import com.sun.jersey.core.util.MultivaluedMapImpl;
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.Tags;
+import org.junit.Test;
+
+import javax.ws.rs.core.MultivaluedMap;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SlowestRequestsTest {
+    private static final long WINDOW = SECONDS.toNanos(60);
+
+    private final MockClock clock = new MockClock();
+    private final SlowestRequests slowestRequests = new SlowestRequests(
+        Tags.of("method", "GET", "uri", "/dummy"),
+        3,
+        WINDOW,
+        clock
+    );
+
+    @Test
+    public void only_the_slowest_requests_are_kept(
+    ) {
+        for (long duration = 1; duration <= 10; ++duration) {
+            offer(duration);
+        }
+
+        assertEquals(listOf(8L, 9L, 10L), durations());
+    }
+
+    @Test
+    public void faster_request_does_not_replace_captured_requests(
+    ) {
+        offer(5);
+        offer(6);
+        offer(7);
+        offer(1);
+
+        assertEquals(listOf(5L, 6L, 7L), durations());
+    }
+
+    @Test
+    public void requests_of_previous_window_are_kept(
+    ) {
+        offer(5);
+        clock.add(WINDOW, NANOSECONDS);
+        offer(1);
+
+        assertEquals(listOf(1L, 5L), durations());
+    }
+
+    @Test
+    public void requests_are_discarded_after_two_windows(
+    ) {
+        offer(5);
+        clock.add(WINDOW, NANOSECONDS);
+        offer(1);
+        clock.add(WINDOW, NANOSECONDS);
+
+        assertEquals(listOf(1L), durations());
+    }
+
+    @Test
+    public void names_of_query_parameters_are_captured(
+    ) {
+        MultivaluedMap<String, String> parameters = new MultivaluedMapImpl();
+        parameters.add("offset", "20");
+        parameters.add("limit", "10");
+
+        slowestRequests.offer(
+            context(parameters),
+            200,
+            1,
+            clock.monotonicTime()
+        );
+
+        SlowRequest request = requests().get(0);
+        assertEquals("limit&offset", request.getQueryParameters());
+        assertTrue(request.toString().startsWith("GET /dummy?limit&offset"));
+    }
+
+    @Test
+    public void status_and_timestamp_are_captured(
+    ) {
+        clock.add(5, SECONDS);
+
+        slowestRequests.offer(
+            context(new MultivaluedMapImpl()),
+            404,
+            1,
+            clock.monotonicTime()
+        );
+
+        SlowRequest request = requests().get(0);
+        assertEquals(404, request.getStatus());
+        assertEquals(clock.wallTime(), request.getTimestamp());
+    }
+
+    @Test
+    public void query_parameters_of_different_requests_are_kept_apart(
+    ) {
+        MultivaluedMap<String, String> first = new MultivaluedMapImpl();
+        first.add("offset", "20");
+        MultivaluedMap<String, String> second = new MultivaluedMapImpl();
+        second.add("limit", "10");
+
+        slowestRequests.offer(context(first), 200, 1, clock.monotonicTime());
+        slowestRequests.offer(context(second), 200, 2, clock.monotonicTime());
+
+        assertEquals(
+            listOf("limit", "offset"),
+            requests().stream()
+                .sorted(
+                    Comparator.comparingLong(SlowRequest::getDurationNanos)
+                        .reversed()
+                )
+                .map(SlowRequest::getQueryParameters)
+                .collect(toList())
+        );
+    }
+
+    private void offer(
+        long duration
+    ) {
+        slowestRequests.offer(
+            context(new MultivaluedMapImpl()),
+            200,
+            duration,
+            clock.monotonicTime()
+        );
+    }
+
+    private List<SlowRequest> requests() {
+        List<SlowRequest> requests = new ArrayList<>();
+        slowestRequests.addTo(requests);
+        return requests;
+    }
+
+    private List<Long> durations() {
+        return requests().stream()
+            .map(SlowRequest::getDurationNanos)
+            .sorted()
+            .collect(toList());
+    }
+
+    @SafeVarargs
+    private static <T> List<T> listOf(
+        T... values
+    ) {
+        return Arrays.asList(values);
+    }
+
+    private static HttpContext context(
+        MultivaluedMap<String, String> queryParameters
+    ) {
+        HttpRequestContext request = proxy(
+            HttpRequestContext.class,
+            "getQueryParameters",
+            queryParameters
+        );
+        return proxy(HttpContext.class, "getRequest", request);
+    }
+
+    private static <T> T proxy(
+        Class<T> type,
+        String methodName,
+        Object returnValue
+    ) {
+        return type.cast(
+            Proxy.newProxyInstance(
+                SlowestRequestsTest.class.getClassLoader(),
+                new Class<?>[] { type },
+                (proxy, method, args) -> {
+                    if (method.getName().equals(methodName)) {
+                        return returnValue;
+                    } else {
+                        throw new UnsupportedOperationException(
+                            method.getName()
+                        );
+                    }
+                }
+            )
+        );
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.stefanbirkner.micrometer.jersey.StatusMeters.UNKNOWN_STATUS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class StatusMetersTest {
+    private final AtomicInteger registrations = new AtomicInteger();
+    private final StatusMeters<Object> meters = new StatusMeters<>(
+        status -> {
+            registrations.incrementAndGet();
+            return new Object();
+        }
+    );
+
+    @Test
+    public void meter_of_status_is_registered_only_once(
+    ) {
+        Object first = meters.forStatus(200);
+        Object second = meters.forStatus(200);
+
+        assertSame(first, second);
+        assertEquals(1, registrations.get());
+    }
+
+    @Test
+    public void meter_of_unknown_status_is_registered_only_once(
+    ) {
+        meters.forStatus(UNKNOWN_STATUS);
+        meters.forStatus(UNKNOWN_STATUS);
+
+        assertEquals(1, registrations.get());
+    }
+
+    @Test
+    public void meter_of_status_outside_of_standard_range_is_registered_only_once(
+    ) {
+        Object first = meters.forStatus(999);
+        Object second = meters.forStatus(999);
+
+        assertSame(first, second);
+        assertEquals(1, registrations.get());
+    }
+}
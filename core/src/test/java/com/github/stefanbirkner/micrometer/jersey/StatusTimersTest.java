@@ -0,0 +1,84 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.search.RequiredSearch;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class StatusTimersTest {
+    private static final int REQUESTS = 1_000;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger registrations = new AtomicInteger();
+    private final Function<Tags, RequestTimer> registration
+        = DirectRequestTimer.registeredIn(registry, DistributionSettings.NONE);
+
+    @Test
+    public void timer_of_status_is_registered_only_once_for_many_requests(
+    ) {
+        StatusTimers timers = createTimers(ExceptionTags.DISABLED);
+
+        for (int i = 0; i < REQUESTS; ++i) {
+            timers.forStatus(200).record(1_000);
+        }
+
+        assertEquals(1, registrations.get());
+        assertEquals(
+            REQUESTS,
+            RequiredSearch.in(registry).tag("status", "200").timer().count()
+        );
+    }
+
+    @Test
+    public void each_status_has_its_own_timer(
+    ) {
+        StatusTimers timers = createTimers(ExceptionTags.DISABLED);
+
+        for (int i = 0; i < REQUESTS; ++i) {
+            timers.forStatus(200).record(1_000);
+            timers.forStatus(404).record(1_000);
+        }
+
+        assertEquals(2, registrations.get());
+        assertEquals(
+            REQUESTS,
+            RequiredSearch.in(registry).tag("status", "404").timer().count()
+        );
+    }
+
+    @Test
+    public void timer_of_failure_is_registered_only_once_for_many_requests(
+    ) {
+        StatusTimers timers = createTimers(
+            ExceptionTags.of(new Configuration().withExceptionTag())
+        );
+        RuntimeException exception = new IllegalStateException();
+
+        RequestTimer first = timers.forFailure(500, exception);
+        for (int i = 0; i < REQUESTS; ++i) {
+            assertSame(first, timers.forFailure(500, exception));
+        }
+
+        assertEquals(1, registrations.get());
+    }
+
+    private StatusTimers createTimers(
+        ExceptionTags exceptionTags
+    ) {
+        return new StatusTimers(
+            Tags.of("method", "GET", "uri", "/dummy"),
+            StatusTags.EXACT,
+            exceptionTags,
+            tags -> {
+                registrations.incrementAndGet();
+                return registration.apply(tags);
+            }
+        );
+    }
+}
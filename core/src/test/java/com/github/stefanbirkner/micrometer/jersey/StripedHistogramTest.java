@@ -0,0 +1,105 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StripedHistogramTest {
+    private final StripedHistogram histogram = new StripedHistogram();
+
+    @Test
+    public void small_values_have_their_own_bucket(
+    ) {
+        for (long value = 0; value < 8; ++value) {
+            assertEquals(
+                value,
+                StripedHistogram.upperBound(StripedHistogram.bucket(value))
+            );
+        }
+    }
+
+    @Test
+    public void upper_bound_of_bucket_is_within_an_eighth_of_the_value(
+    ) {
+        for (long value = 8; value < 10_000_000_000L; value = value * 3 + 1) {
+            long upperBound = StripedHistogram.upperBound(
+                StripedHistogram.bucket(value)
+            );
+            assertTrue(upperBound >= value);
+            assertTrue(upperBound - value <= value / 8);
+        }
+    }
+
+    @Test
+    public void largest_value_fits_into_the_buckets(
+    ) {
+        assertTrue(
+            StripedHistogram.bucket(Long.MAX_VALUE) < StripedHistogram.BUCKETS
+        );
+    }
+
+    @Test
+    public void snapshot_merges_the_values_of_all_threads(
+    ) throws Exception {
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; ++t) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1_000; ++i) {
+                    histogram.record(100);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long[] snapshot = histogram.snapshot();
+
+        assertEquals(8_000, StripedHistogram.count(snapshot));
+        assertEquals(800_000, StripedHistogram.totalNanos(snapshot));
+    }
+
+    @Test
+    public void negative_duration_is_recorded_as_zero(
+    ) {
+        histogram.record(-100);
+
+        long[] snapshot = histogram.snapshot();
+
+        assertEquals(1, snapshot[StripedHistogram.bucket(0)]);
+        assertEquals(0, StripedHistogram.totalNanos(snapshot));
+    }
+
+    @Test
+    public void stripe_is_created_when_first_value_is_recorded(
+    ) {
+        assertEquals(0, histogram.createdStripes());
+
+        histogram.record(100);
+
+        assertEquals(1, histogram.createdStripes());
+    }
+
+    @Test
+    public void number_of_stripes_is_bounded(
+    ) throws Exception {
+        Thread[] threads = new Thread[4 * StripedHistogram.MAX_STRIPES];
+        for (int t = 0; t < threads.length; ++t) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; ++i) {
+                    histogram.record(100);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(
+            histogram.createdStripes() <= StripedHistogram.MAX_STRIPES
+        );
+    }
+}
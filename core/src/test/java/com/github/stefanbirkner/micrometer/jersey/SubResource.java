@@ -0,0 +1,17 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+
+public class SubResource {
+    @GET
+    public String get() {
+        return "ok";
+    }
+
+    @GET
+    @Path("sub-path")
+    public String subPath() {
+        return "ok";
+    }
+}
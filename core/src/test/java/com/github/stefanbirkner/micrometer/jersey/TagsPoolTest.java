@@ -0,0 +1,72 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.junit.Test;
+
+import java.util.Iterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class TagsPoolTest {
+    private final TagsPool pool = new TagsPool();
+
+    @Test
+    public void same_method_and_uri_share_tags(
+    ) {
+        Tags first = pool.tagsFor("GET", "/dummy");
+        Tags second = pool.tagsFor("GET", new String("/dummy"));
+
+        assertSame(first, second);
+    }
+
+    @Test
+    public void same_method_shares_method_tag(
+    ) {
+        Tag first = tag(pool.tagsFor("GET", "/first"), "method");
+        Tag second = tag(pool.tagsFor("GET", "/second"), "method");
+
+        assertSame(first, second);
+    }
+
+    @Test
+    public void same_uri_shares_uri_tag(
+    ) {
+        Tag first = tag(pool.tagsFor("GET", "/dummy"), "uri");
+        Tag second = tag(pool.tagsFor("POST", "/dummy"), "uri");
+
+        assertSame(first, second);
+    }
+
+    @Test
+    public void tags_have_method_and_uri(
+    ) {
+        Tags tags = pool.tagsFor("CUSTOM", "/dummy");
+
+        assertEquals(Tags.of("method", "CUSTOM", "uri", "/dummy"), tags);
+    }
+
+    @Test
+    public void status_tags_are_shared(
+    ) {
+        Tag first = tag(StatusTags.EXACT.forStatus(200), "status");
+        Tag second = tag(StatusTags.EXACT.forStatus(200), "status");
+
+        assertSame(first, second);
+    }
+
+    private static Tag tag(
+        Tags tags,
+        String key
+    ) {
+        Iterator<Tag> iterator = tags.iterator();
+        while (iterator.hasNext()) {
+            Tag tag = iterator.next();
+            if (tag.getKey().equals(key)) {
+                return tag;
+            }
+        }
+        throw new AssertionError("There is no tag " + key + ".");
+    }
+}
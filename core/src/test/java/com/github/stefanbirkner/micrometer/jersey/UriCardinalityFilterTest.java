@@ -0,0 +1,145 @@
+package com.github.stefanbirkner.micrometer.jersey;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.search.RequiredSearch;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class UriCardinalityFilterTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    public void uri_is_kept_until_maximum_is_reached(
+    ) {
+        addFilter(2, Integer.MAX_VALUE);
+
+        registerTimer("/first");
+        registerTimer("/second");
+
+        RequiredSearch.in(registry).tag("uri", "/second").timer();
+    }
+
+    @Test
+    public void uri_is_replaced_after_maximum_has_been_reached(
+    ) {
+        UriCardinalityFilter filter = addFilter(2, Integer.MAX_VALUE);
+
+        registerTimer("/first");
+        registerTimer("/second");
+        registerTimer("/third");
+
+        RequiredSearch.in(registry).tag("uri", "OTHER").timer();
+        assertEquals(1, filter.rejectedMeters());
+    }
+
+    @Test
+    public void known_uri_is_kept_after_maximum_has_been_reached(
+    ) {
+        addFilter(1, Integer.MAX_VALUE);
+
+        registerTimer("/first");
+        registerTimer("/second");
+        registerTimer("/first", "404");
+
+        RequiredSearch.in(registry)
+            .tag("uri", "/first")
+            .tag("status", "404")
+            .timer();
+    }
+
+    @Test
+    public void meter_is_denied_after_maximum_number_of_meters(
+    ) {
+        UriCardinalityFilter filter = addFilter(Integer.MAX_VALUE, 1);
+
+        registerTimer("/first");
+        registerTimer("/second");
+
+        assertNull(
+            registry.find("http.server.requests").tag("uri", "/second").timer()
+        );
+        assertEquals(1, filter.rejectedMeters());
+    }
+
+    @Test
+    public void replaced_uri_is_counted_only_once(
+    ) {
+        UriCardinalityFilter filter = addFilter(1, Integer.MAX_VALUE);
+
+        registerTimer("/first");
+        registerTimer("/second");
+        registerTimer("/second");
+        registerTimer("/second", "404");
+
+        assertEquals(1, filter.rejectedMeters());
+    }
+
+    @Test
+    public void denied_meter_is_counted_only_once(
+    ) {
+        UriCardinalityFilter filter = addFilter(Integer.MAX_VALUE, 1);
+
+        registerTimer("/first");
+        registerTimer("/second");
+        registerTimer("/second");
+
+        assertEquals(1, filter.rejectedMeters());
+    }
+
+    @Test
+    public void uri_is_replaced_before_meters_are_created(
+    ) {
+        UriCardinalityFilter filter = addFilter(1, Integer.MAX_VALUE);
+
+        assertEquals("/first", filter.uriFor("/first"));
+        assertEquals(UriCardinalityFilter.OTHER, filter.uriFor("/second"));
+    }
+
+    @Test
+    public void meters_with_other_names_are_not_affected(
+    ) {
+        addFilter(0, 0);
+
+        Timer.builder("other.timer")
+            .tag("uri", "/first")
+            .register(registry);
+
+        RequiredSearch.in(registry)
+            .name("other.timer")
+            .tag("uri", "/first")
+            .timer();
+    }
+
+    private UriCardinalityFilter addFilter(
+        int maximumUris,
+        int maximumMeters
+    ) {
+        UriCardinalityFilter filter = new UriCardinalityFilter(
+            maximumUris,
+            maximumMeters
+        );
+        registry.config().meterFilter(filter);
+        filter.registerRejectedMetersCounter(registry);
+        return filter;
+    }
+
+    private Timer registerTimer(
+        String uri
+    ) {
+        return registerTimer(uri, "200");
+    }
+
+    private Timer registerTimer(
+        String uri,
+        String status
+    ) {
+        return Timer.builder("http.server.requests")
+            .tag("method", "GET")
+            .tag("uri", uri)
+            .tag("status", status)
+            .register(registry);
+    }
+}
@@ -0,0 +1,215 @@
+package com.github.stefanbirkner.micrometer.jersey2;
+
+import com.github.stefanbirkner.micrometer.jersey.Configuration;
+import com.github.stefanbirkner.micrometer.jersey.ResourceMethodMeters;
+import com.github.stefanbirkner.micrometer.jersey.ResourceMethodMetersFactory;
+import com.github.stefanbirkner.micrometer.jersey.ResourceMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.glassfish.jersey.server.model.Resource;
+import org.glassfish.jersey.server.model.ResourceMethod;
+import org.glassfish.jersey.server.monitoring.ApplicationEvent;
+import org.glassfish.jersey.server.monitoring.ApplicationEventListener;
+import org.glassfish.jersey.server.monitoring.RequestEvent;
+import org.glassfish.jersey.server.monitoring.RequestEventListener;
+import org.glassfish.jersey.uri.UriTemplate;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the requests of a Jersey 2 application. It publishes the same
+ * timers like the Jersey 1 integration and is configured by the same
+ * {@link Configuration} and {@link ResourceMetrics} annotations.
+ * <pre>
+ * ResourceConfig config = new ResourceConfig()
+ *     .register(new MicrometerApplicationEventListener(
+ *         meterRegistry,
+ *         new Configuration()
+ *     ));
+ * </pre>
+ * <p>The timers of the resource methods are created when the application
+ * is initialized, so a request only needs a lookup by its
+ * {@link ResourceMethod}. Only the {@code uri} of methods of sub-resources
+ * that are returned by sub-resource locators is built from the matched
+ * templates. Methods that are not measured are remembered, too, so that
+ * their requests don't cause any work apart from the lookup.
+ * <p>All requests share a single {@link RequestEventListener}. It keeps the
+ * state of a request in the request's properties and creates it only for
+ * methods that are measured.
+ */
+public final class MicrometerApplicationEventListener
+    implements ApplicationEventListener
+{
+    private final ResourceMethodMetersFactory metersFactory;
+    private final RequestEventListener requestEventListener;
+    //Optional.empty() marks methods that are not measured. ConcurrentHashMap
+    //does not store null values and therefore computeIfAbsent would call
+    //the factory for every request of such a method.
+    private final ConcurrentMap<
+        Method,
+        Map<String, Optional<ResourceMethodMeters>>
+    > subResourceTimers = new ConcurrentHashMap<>();
+    private volatile Map<ResourceMethod, Optional<ResourceMethodMeters>>
+        timers = Collections.emptyMap();
+    private final LongAdder createdTimers = new LongAdder();
+
+    /**
+     * Creates a listener with the default {@link Configuration}.
+     * @param meterRegistry the registry of the timers.
+     */
+    public MicrometerApplicationEventListener(
+        MeterRegistry meterRegistry
+    ) {
+        this(meterRegistry, new Configuration());
+    }
+
+    /**
+     * Creates a listener.
+     * @param meterRegistry the registry of the timers.
+     * @param configuration the configuration of the timers.
+     * @throws IllegalArgumentException if the configuration has an option
+     * that is only supported by the Jersey 1 integration.
+     * @see ResourceMethodMetersFactory
+     */
+    public MicrometerApplicationEventListener(
+        MeterRegistry meterRegistry,
+        Configuration configuration
+    ) {
+        this.metersFactory = new ResourceMethodMetersFactory(
+            meterRegistry,
+            configuration
+        );
+        this.requestEventListener = new MicrometerRequestEventListener(
+            meterRegistry.config().clock(),
+            this::timersFor
+        );
+    }
+
+    @Override
+    public void onEvent(
+        ApplicationEvent event
+    ) {
+        if (event.getType()
+            == ApplicationEvent.Type.INITIALIZATION_APP_FINISHED) {
+            Map<ResourceMethod, Optional<ResourceMethodMeters>> timers
+                = new HashMap<>();
+            for (Resource resource : event.getResourceModel().getResources()) {
+                addTimers(timers, resource, Collections.emptyList());
+            }
+            this.timers = timers;
+        }
+    }
+
+    @Override
+    public RequestEventListener onRequest(
+        RequestEvent requestEvent
+    ) {
+        return requestEventListener;
+    }
+
+    private void addTimers(
+        Map<ResourceMethod, Optional<ResourceMethodMeters>> timers,
+        Resource resource,
+        List<String> parentTemplates
+    ) {
+        List<String> templates = new ArrayList<>(parentTemplates);
+        templates.add(resource.getPath());
+        String uri = ResourceMethodMetersFactory.uri(templates);
+        for (ResourceMethod method : resource.getResourceMethods()) {
+            timers.put(method, createTimers(method, uri));
+        }
+        for (Resource child : resource.getChildResources()) {
+            addTimers(timers, child, templates);
+        }
+    }
+
+    /**
+     * Returns the timers of the resource method that handles the request
+     * or {@code null} if the method is not measured.
+     */
+    private ResourceMethodMeters timersFor(
+        RequestEvent event
+    ) {
+        ResourceMethod method = event.getUriInfo().getMatchedResourceMethod();
+        if (method == null) {
+            return null;
+        }
+        Optional<ResourceMethodMeters> methodTimers = timers.get(method);
+        if (methodTimers != null) {
+            return methodTimers.orElse(null);
+        }
+        //The method belongs to a sub-resource that has been returned by a
+        //sub-resource locator. Its path depends on the locators.
+        return subResourceTimers
+            .computeIfAbsent(
+                method.getInvocable().getHandlingMethod(),
+                key -> new ConcurrentHashMap<>()
+            )
+            .computeIfAbsent(
+                uri(event.getUriInfo().getMatchedTemplates()),
+                uri -> createTimers(method, uri)
+            )
+            .orElse(null);
+    }
+
+    private Optional<ResourceMethodMeters> createTimers(
+        ResourceMethod method,
+        String uri
+    ) {
+        createdTimers.increment();
+        return Optional.ofNullable(
+            metersFactory.create(
+                method.getHttpMethod(),
+                uri,
+                annotation(method)
+            )
+        );
+    }
+
+    /**
+     * Returns how often the timers of a resource method have been created.
+     * Only used by tests.
+     */
+    long createdTimers() {
+        return createdTimers.sum();
+    }
+
+    /**
+     * Returns the {@code ResourceMetrics} annotation of the method or, if the
+     * method is not annotated, of its class.
+     */
+    private ResourceMetrics annotation(
+        ResourceMethod method
+    ) {
+        Method handlingMethod = method.getInvocable().getHandlingMethod();
+        ResourceMetrics annotation = handlingMethod.getAnnotation(
+            ResourceMetrics.class
+        );
+        if (annotation == null) {
+            annotation = method.getInvocable()
+                .getHandler()
+                .getHandlerClass()
+                .getAnnotation(ResourceMetrics.class);
+        }
+        return annotation;
+    }
+
+    private String uri(
+        List<UriTemplate> matchedTemplates
+    ) {
+        //Jersey provides the templates starting with the last one.
+        List<String> templates = new ArrayList<>(matchedTemplates.size());
+        for (int i = matchedTemplates.size() - 1; i >= 0; --i) {
+            templates.add(matchedTemplates.get(i).getTemplate());
+        }
+        return ResourceMethodMetersFactory.uri(templates);
+    }
+}
@@ -0,0 +1,161 @@
+package com.github.stefanbirkner.micrometer.jersey2;
+
+import com.github.stefanbirkner.micrometer.jersey.ResourceMethodMeters;
+import io.micrometer.core.instrument.Clock;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.internal.process.MappableException;
+import org.glassfish.jersey.server.monitoring.RequestEvent;
+import org.glassfish.jersey.server.monitoring.RequestEventListener;
+
+import javax.ws.rs.WebApplicationException;
+import java.util.function.Function;
+
+import static com.github.stefanbirkner.micrometer.jersey.ResourceMethodMeters.UNKNOWN_STATUS;
+
+/**
+ * Measures the requests of a Jersey 2 application. Like the Jersey 1
+ * dispatch wrapper it measures the invocation of the resource method. The
+ * duration is recorded when the response has been created because the
+ * status is not known before.
+ * <p>A single listener is used for all requests. The state of a request is
+ * stored in a property of the request and only created for requests of
+ * methods that are measured.
+ */
+final class MicrometerRequestEventListener implements RequestEventListener {
+    private static final String MEASUREMENT_PROPERTY
+        = MicrometerRequestEventListener.class.getName() + ".measurement";
+    private final Clock clock;
+    private final Function<RequestEvent, ResourceMethodMeters> timersForEvent;
+
+    MicrometerRequestEventListener(
+        Clock clock,
+        Function<RequestEvent, ResourceMethodMeters> timersForEvent
+    ) {
+        this.clock = clock;
+        this.timersForEvent = timersForEvent;
+    }
+
+    @Override
+    public void onEvent(
+        RequestEvent event
+    ) {
+        switch (event.getType()) {
+            case RESOURCE_METHOD_START:
+                start(event);
+                break;
+            case RESOURCE_METHOD_FINISHED:
+                Measurement measurement = measurement(event);
+                if (measurement != null && measurement.timed) {
+                    measurement.duration
+                        = clock.monotonicTime() - measurement.start;
+                }
+                break;
+            case FINISHED:
+                record(event);
+                break;
+            default:
+                //not needed
+        }
+    }
+
+    private void start(
+        RequestEvent event
+    ) {
+        ResourceMethodMeters timers = timersForEvent.apply(event);
+        if (timers != null) {
+            Measurement measurement = new Measurement(timers);
+            //The clock is not read for requests that are not sampled.
+            measurement.timed = timers.sample();
+            measurement.start = measurement.timed ? clock.monotonicTime() : 0L;
+            event.getContainerRequest()
+                .setProperty(MEASUREMENT_PROPERTY, measurement);
+        }
+    }
+
+    private Measurement measurement(
+        RequestEvent event
+    ) {
+        ContainerRequest request = event.getContainerRequest();
+        if (request == null) {
+            return null;
+        } else {
+            return (Measurement) request.getProperty(MEASUREMENT_PROPERTY);
+        }
+    }
+
+    private void record(
+        RequestEvent event
+    ) {
+        Measurement measurement = measurement(event);
+        if (measurement == null) {
+            return;
+        }
+        int status;
+        Throwable exception = event.getException();
+        if (exception == null) {
+            status = status(event);
+        } else {
+            //Requests that fail are often the slow ones. Therefore they are
+            //recorded for every kind of exception and error.
+            exception = exceptionThrownByResource(exception);
+            status = statusOf(exception);
+        }
+        ResourceMethodMeters timers = measurement.timers;
+        if (!measurement.timed) {
+            timers.countUntimed(status, exception);
+        } else if (measurement.duration >= 0) {
+            timers.record(status, exception, measurement.duration);
+        } else {
+            timers.record(
+                status,
+                exception,
+                clock.monotonicTime() - measurement.start
+            );
+        }
+    }
+
+    private int status(
+        RequestEvent event
+    ) {
+        ContainerResponse response = event.getContainerResponse();
+        return response == null ? UNKNOWN_STATUS : response.getStatus();
+    }
+
+    private Throwable exceptionThrownByResource(
+        Throwable e
+    ) {
+        if (e instanceof MappableException && e.getCause() != null) {
+            return e.getCause();
+        } else {
+            return e;
+        }
+    }
+
+    private int statusOf(
+        Throwable exception
+    ) {
+        //Like the Jersey 1 integration, exceptions that are mapped by an
+        //ExceptionMapper are recorded with an unknown status.
+        if (exception instanceof WebApplicationException) {
+            return ((WebApplicationException) exception)
+                .getResponse()
+                .getStatus();
+        } else {
+            return UNKNOWN_STATUS;
+        }
+    }
+
+    private static final class Measurement {
+        final ResourceMethodMeters timers;
+        boolean timed;
+        long start;
+        long duration = -1;
+
+        Measurement(
+            ResourceMethodMeters timers
+        ) {
+            this.timers = timers;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.github.stefanbirkner.micrometer.jersey2;
+
+import com.github.stefanbirkner.micrometer.jersey.Configuration;
+import com.github.stefanbirkner.micrometer.jersey.ResourceMetrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.search.RequiredSearch;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.test.JerseyTest;
+import org.junit.Test;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Application;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MicrometerApplicationEventListenerTest extends JerseyTest {
+    //JerseyTest calls configure() from its constructor, i.e. before the
+    //fields of the subclass are initialized.
+    private SimpleMeterRegistry registry;
+    private MicrometerApplicationEventListener listener;
+
+    @Override
+    protected Application configure() {
+        registry = new SimpleMeterRegistry();
+        listener = new MicrometerApplicationEventListener(registry);
+        return new ResourceConfig(Resource.class).register(listener);
+    }
+
+    @Test
+    public void request_is_measured_with_method_uri_and_status(
+    ) {
+        target("resource/with/1").request().get(String.class);
+
+        Timer timer = RequiredSearch.in(registry)
+            .name("http.server.requests")
+            .tag("method", "GET")
+            .tag("uri", "/resource/with/{parameter}")
+            .tag("status", "200")
+            .timer();
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    public void request_is_not_measured_when_disabled_on_method(
+    ) {
+        target("resource/disabled").request().get(String.class);
+
+        assertTrue(registry.getMeters().isEmpty());
+    }
+
+    @Test
+    public void disabled_method_of_sub_resource_is_looked_up_only_once(
+    ) {
+        target("resource/locator/1/disabled").request().get(String.class);
+        long createdTimers = listener.createdTimers();
+
+        target("resource/locator/1/disabled").request().get(String.class);
+        target("resource/locator/2/disabled").request().get(String.class);
+
+        assertEquals(createdTimers, listener.createdTimers());
+        assertTrue(registry.getMeters().isEmpty());
+    }
+
+    @Test
+    public void status_of_web_application_exception_is_recorded(
+    ) {
+        target("resource/not-found").request().get();
+
+        assertEquals(
+            1,
+            RequiredSearch.in(registry)
+                .tag("status", "404")
+                .timer()
+                .count()
+        );
+    }
+
+    @Test
+    public void uri_of_sub_resource_contains_path_of_locator(
+    ) {
+        target("resource/locator/1/sub-path").request().get(String.class);
+
+        assertEquals(
+            1,
+            RequiredSearch.in(registry)
+                .tag("uri", "/resource/locator/{id}/sub-path")
+                .timer()
+                .count()
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void options_of_the_jersey_1_integration_are_rejected(
+    ) {
+        new MicrometerApplicationEventListener(
+            registry,
+            new Configuration().withActiveRequests()
+        );
+    }
+
+    @Path("resource")
+    public static class Resource {
+        @GET
+        @Path("with/{parameter}")
+        public String withParameter(
+            @PathParam("parameter") String parameter
+        ) {
+            return "ok";
+        }
+
+        @GET
+        @Path("disabled")
+        @ResourceMetrics(enabled = false)
+        public String disabled() {
+            return "ok";
+        }
+
+        @GET
+        @Path("not-found")
+        public String notFound() {
+            throw new WebApplicationException(404);
+        }
+
+        @Path("locator/{id}")
+        public SubResource locator() {
+            return new SubResource();
+        }
+    }
+
+    public static class SubResource {
+        @GET
+        @Path("sub-path")
+        public String subPath() {
+            return "ok";
+        }
+
+        @GET
+        @Path("disabled")
+        @ResourceMetrics(enabled = false)
+        public String disabled() {
+            return "ok";
+        }
+    }
+}